@@ -0,0 +1,74 @@
+package com.uzum.wms.logging.starter.benchmarks;
+
+import com.uzum.wms.logging.starter.config.CachedBodyServletInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ways handlers and message converters read a cached body.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CachedBodyServletInputStreamBenchmark {
+
+    @Param({"1024", "102400", "10485760"})
+    private int payloadSize;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private byte[] payload;
+    private final byte[] readBuffer = new byte[8192];
+
+    @Setup
+    public void setUp() {
+        payload = Payloads.of(MediaType.APPLICATION_JSON_VALUE, payloadSize);
+    }
+
+    @Benchmark
+    public long singleByteRead() {
+        CachedBodyServletInputStream inputStream = new CachedBodyServletInputStream(payload, request);
+        long sum = 0;
+        for (int b; (b = inputStream.read()) != -1; ) {
+            sum += b;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long bufferedRead() {
+        CachedBodyServletInputStream inputStream = new CachedBodyServletInputStream(payload, request);
+        long total = 0;
+        for (int count; (count = inputStream.read(readBuffer, 0, readBuffer.length)) != -1; ) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public byte[] readAllBytes() {
+        return new CachedBodyServletInputStream(payload, request).readAllBytes();
+    }
+
+    @Benchmark
+    public long transferTo() throws IOException {
+        return new CachedBodyServletInputStream(payload, request).transferTo(OutputStream.nullOutputStream());
+    }
+}
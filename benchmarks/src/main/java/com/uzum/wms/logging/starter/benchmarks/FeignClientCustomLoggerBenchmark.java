@@ -0,0 +1,104 @@
+package com.uzum.wms.logging.starter.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.uzum.wms.logging.starter.feignclient.FeignClientCustomLogger;
+import feign.Request;
+import feign.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code logAndRebufferResponse} followed by the decoder reading the body it returns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeignClientCustomLoggerBenchmark {
+    private static final String CONFIG_KEY = "CatalogClient#export(long)";
+
+    @Param({"0", "1024", "102400", "10485760"})
+    private int payloadSize;
+
+    @Param({MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PDF_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    private String contentType;
+
+    @Param({"INFO", "WARN"})
+    private String logLevel;
+
+    /**
+     * REPEATABLE is a body Feign already holds in memory, STREAMED an unknown-length stream that goes through
+     * {@code CapturingResponseBody}.
+     */
+    @Param({"REPEATABLE", "STREAMED"})
+    private String bodyType;
+
+    private byte[] payload;
+    private Request request;
+    private Map<String, Collection<String>> headers;
+    private FeignClientCustomLogger logger;
+    private final byte[] readBuffer = new byte[8192];
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(FeignClientCustomLogger.class)).setLevel(Level.toLevel(logLevel));
+        payload = Payloads.of(contentType, payloadSize);
+        headers = Map.of(HttpHeaders.CONTENT_TYPE, List.of(contentType));
+        request = Request.create(Request.HttpMethod.GET, "http://catalog/export/42", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        logger = new FeignClientCustomLogger(5000);
+    }
+
+    @Benchmark
+    public long logAndRebufferResponse() throws IOException {
+        Response.Builder response = Response.builder()
+                .request(request)
+                .status(200)
+                .headers(headers);
+        if ("STREAMED".equals(bodyType)) {
+            // no length, as a known one above maxPayload skips the capture altogether
+            response.body(new ByteArrayInputStream(payload), null);
+        } else {
+            response.body(payload);
+        }
+        Response rebuffered = logger.logAndRebufferResponse(CONFIG_KEY, feign.Logger.Level.FULL, response.build(), 10);
+        return consume(rebuffered);
+    }
+
+    private long consume(Response response) throws IOException {
+        if (response.body() == null) {
+            return 0;
+        }
+        long total = 0;
+        try (InputStream body = response.body().asInputStream()) {
+            for (int count; (count = body.read(readBuffer)) != -1; ) {
+                total += count;
+            }
+        }
+        return total;
+    }
+}
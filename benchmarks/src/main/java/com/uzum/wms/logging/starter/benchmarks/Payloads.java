@@ -0,0 +1,65 @@
+package com.uzum.wms.logging.starter.benchmarks;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+final class Payloads {
+    private static final byte[] PDF_HEADER = "%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII);
+    private static final String JSON_ITEM = "{\"sku\":\"SKU-%08d\",\"quantity\":%d,\"cell\":\"A-%03d-%02d\"}";
+
+    private Payloads() {
+    }
+
+    /**
+     * A body of exactly {@code size} bytes that looks like what the content type promises.
+     */
+    static byte[] of(String contentType, int size) {
+        if (size == 0) {
+            return new byte[0];
+        }
+        if (MediaType.APPLICATION_JSON_VALUE.equals(contentType)) {
+            return json(size);
+        }
+        if (MediaType.APPLICATION_PDF_VALUE.equals(contentType)) {
+            return pdf(size);
+        }
+        return text(size);
+    }
+
+    private static byte[] json(int size) {
+        // an array of small objects, padded with spaces to the exact size
+        StringBuilder builder = new StringBuilder(size).append('[');
+        for (int i = 0; ; i++) {
+            String item = String.format(JSON_ITEM, i, i % 100, i % 1000, i % 100);
+            if (builder.length() + item.length() + 2 > size) {
+                break;
+            }
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(item);
+        }
+        builder.append(']');
+        while (builder.length() < size) {
+            builder.append(' ');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] pdf(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        System.arraycopy(PDF_HEADER, 0, bytes, 0, Math.min(PDF_HEADER.length, size));
+        return bytes;
+    }
+
+    private static byte[] text(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i % 64 == 63 ? '\n' : 'a' + i % 26);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,132 @@
+package com.uzum.wms.logging.starter.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uzum.wms.logging.starter.filters.RequestResponseFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A POST echoed back by the handler, through the filter and without it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestResponseFilterBenchmark {
+
+    @Param({"0", "1024", "102400", "10485760"})
+    private int payloadSize;
+
+    @Param({MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PDF_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    private String contentType;
+
+    /**
+     * DEBUG logs every request, INFO switches the filter off.
+     */
+    @Param({"DEBUG", "INFO"})
+    private String logLevel;
+
+    private byte[] payload;
+    private RequestResponseFilter filter;
+    private FilterChain echoChain;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(RequestResponseFilter.class)).setLevel(Level.toLevel(logLevel));
+        payload = Payloads.of(contentType, payloadSize);
+        filter = new RequestResponseFilter(new ObjectMapper(), 5000);
+        byte[] readBuffer = new byte[8192];
+        echoChain = (request, response) -> {
+            response.setContentType(contentType);
+            InputStream body = request.getInputStream();
+            ServletOutputStream out = response.getOutputStream();
+            for (int count; (count = body.read(readBuffer)) != -1; ) {
+                out.write(readBuffer, 0, count);
+            }
+        };
+    }
+
+    @Benchmark
+    public HttpServletResponse filter() throws Exception {
+        MockHttpServletRequest request = request();
+        HttpServletResponse response = response();
+        filter.doFilter(request, response, echoChain);
+        return response;
+    }
+
+    @Benchmark
+    public HttpServletResponse baseline() throws Exception {
+        MockHttpServletRequest request = request();
+        HttpServletResponse response = response();
+        echoChain.doFilter(request, response);
+        return response;
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders/42");
+        request.setContentType(contentType);
+        request.setContent(payload);
+        return request;
+    }
+
+    private static HttpServletResponse response() {
+        // MockHttpServletResponse keeps the whole body, which would hide the filter's own allocations
+        return new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            private final ServletOutputStream outputStream = new DiscardingServletOutputStream();
+
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return outputStream;
+            }
+        };
+    }
+
+    private static class DiscardingServletOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) {
+            //do nothing
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            //do nothing
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            //do nothing
+        }
+    }
+}
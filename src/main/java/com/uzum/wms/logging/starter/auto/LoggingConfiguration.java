@@ -1,22 +1,101 @@
 package com.uzum.wms.logging.starter.auto;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uzum.wms.logging.starter.config.LoggingProperties;
 import com.uzum.wms.logging.starter.filters.RequestResponseFilter;
+import com.uzum.wms.logging.starter.metrics.LoggingMetrics;
+import com.uzum.wms.logging.starter.metrics.LoggingMetricsBinder;
+import com.uzum.wms.logging.starter.metrics.MicrometerRequestPhaseRecorder;
+import com.uzum.wms.logging.starter.metrics.RequestPhaseRecorder;
+import com.uzum.wms.logging.starter.pipeline.AsyncHttpLogEventPublisher;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEventPublisher;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEventSerializer;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEventWriter;
+import com.uzum.wms.logging.starter.redaction.JsonRedactor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
-@AutoConfiguration
+@AutoConfiguration(afterName =
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@EnableConfigurationProperties(LoggingProperties.class)
 public class LoggingConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
     @ConditionalOnProperty(value = "logging.wms-starter.enabled", havingValue = "true")
-    public RequestResponseFilter requestResponseFilter(ObjectMapper objectMapper,
-                                                       @Value("${logging.maxPayload:5000}") Integer maxPayload) {
-        return new RequestResponseFilter(objectMapper, maxPayload);
+    public LoggingMetrics loggingMetrics() {
+        return new LoggingMetrics();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "logging.wms-starter.enabled", havingValue = "true")
+    public HttpLogEventSerializer httpLogEventSerializer(ObjectMapper objectMapper,
+                                                         @Value("${logging.maxPayload:5000}") Integer maxPayload,
+                                                         LoggingMetrics loggingMetrics,
+                                                         LoggingProperties loggingProperties) {
+        return new HttpLogEventSerializer(objectMapper.getFactory(), maxPayload, loggingMetrics,
+                JsonRedactor.compile(loggingProperties.getRedaction()));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "logging.wms-starter.enabled", havingValue = "true")
+    public HttpLogEventWriter httpLogEventWriter(HttpLogEventSerializer httpLogEventSerializer) {
+        return new HttpLogEventWriter(httpLogEventSerializer);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = {"logging.wms-starter.enabled", "logging.wms-starter.async.enabled"},
+            havingValue = "true")
+    public AsyncHttpLogEventPublisher asyncHttpLogEventPublisher(HttpLogEventWriter httpLogEventWriter,
+                                                                 LoggingProperties loggingProperties) {
+        return new AsyncHttpLogEventPublisher(httpLogEventWriter, loggingProperties.getAsync());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "logging.wms-starter.enabled", havingValue = "true")
+    public RequestResponseFilter requestResponseFilter(@Value("${logging.maxPayload:5000}") Integer maxPayload,
+                                                       LoggingProperties loggingProperties,
+                                                       HttpLogEventWriter httpLogEventWriter,
+                                                       ObjectProvider<AsyncHttpLogEventPublisher> asyncPublisher,
+                                                       ObjectProvider<RequestPhaseRecorder> requestPhaseRecorder,
+                                                       LoggingMetrics loggingMetrics) {
+        HttpLogEventPublisher httpLogEventPublisher = asyncPublisher.getIfAvailable();
+        return new RequestResponseFilter(maxPayload, loggingProperties,
+                httpLogEventPublisher != null ? httpLogEventPublisher : httpLogEventWriter,
+                requestPhaseRecorder.getIfAvailable(() -> RequestPhaseRecorder.NOOP), loggingMetrics);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(value = "logging.wms-starter.enabled", havingValue = "true")
+    static class MetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(MeterRegistry.class)
+        public RequestPhaseRecorder requestPhaseRecorder(MeterRegistry meterRegistry) {
+            return new MicrometerRequestPhaseRecorder(meterRegistry);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public LoggingMetricsBinder loggingMetricsBinder(LoggingMetrics loggingMetrics,
+                                                         ObjectProvider<AsyncHttpLogEventPublisher> asyncPublisher) {
+            return new LoggingMetricsBinder(loggingMetrics, asyncPublisher.getIfAvailable());
+        }
     }
 
 }
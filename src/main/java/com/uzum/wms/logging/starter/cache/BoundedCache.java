@@ -0,0 +1,63 @@
+package com.uzum.wms.logging.starter.cache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Keeps at most {@code maxSize} values and evicts with the CLOCK algorithm. Keys such as paths may carry ids, so
+ * a hit only marks its entry, and a miss on a full cache moves a hand over the entries, clearing marks, until it
+ * finds one that was not hit since the hand last passed it. A key seen once goes first, while hot keys stay.
+ */
+public class BoundedCache<K, V> {
+    private final int maxSize;
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private Iterator<Entry<V>> hand;
+
+    /**
+     * @param maxSize how many keys keep their value, 0 to compute every time
+     */
+    public BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            entry.referenced = true;
+            return entry.value;
+        }
+        V value = loader.apply(key);
+        if (maxSize > 0) {
+            if (entries.size() >= maxSize) {
+                evict();
+            }
+            entries.putIfAbsent(key, new Entry<>(value));
+        }
+        return value;
+    }
+
+    private synchronized void evict() {
+        while (entries.size() >= maxSize) {
+            if (hand == null || !hand.hasNext()) {
+                hand = entries.values().iterator();
+            }
+            Entry<V> entry = hand.next();
+            if (entry.referenced) {
+                entry.referenced = false;
+            } else {
+                hand.remove();
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private volatile boolean referenced;
+
+        private Entry(V value) {
+            this.value = value;
+        }
+    }
+}
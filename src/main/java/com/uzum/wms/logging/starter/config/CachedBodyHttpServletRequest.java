@@ -5,8 +5,16 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import org.springframework.util.StreamUtils;
 
-import java.io.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
 
 public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
     private final byte[] cachedBody;
@@ -19,13 +27,23 @@ public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
 
     @Override
     public ServletInputStream getInputStream() {
-        return new CachedBodyServletInputStream(this.cachedBody);
+        return new CachedBodyServletInputStream(this.cachedBody, this);
     }
 
     @Override
-    public BufferedReader getReader() {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(this.cachedBody);
-        return new BufferedReader(new InputStreamReader(byteArrayInputStream));
+    public BufferedReader getReader() throws UnsupportedEncodingException {
+        return new BufferedReader(new InputStreamReader(getInputStream(), getCharset()));
+    }
+
+    /**
+     * The cached body without copying it.
+     */
+    public ByteBuffer getBodyAsByteBuffer() {
+        return ByteBuffer.wrap(this.cachedBody).asReadOnlyBuffer();
+    }
+
+    public int getContentSize() {
+        return this.cachedBody.length;
     }
 
     @Override
@@ -33,4 +51,13 @@ public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
         String enc = super.getCharacterEncoding();
         return enc != null ? enc : StandardCharsets.UTF_8.name();
     }
+
+    private Charset getCharset() throws UnsupportedEncodingException {
+        String encoding = getCharacterEncoding();
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new UnsupportedEncodingException(encoding);
+        }
+    }
 }
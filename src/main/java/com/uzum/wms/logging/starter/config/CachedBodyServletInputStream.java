@@ -1,29 +1,103 @@
 package com.uzum.wms.logging.starter.config;
 
+import jakarta.servlet.AsyncContext;
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletInputStream;
-import lombok.SneakyThrows;
+import jakarta.servlet.ServletRequest;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Objects;
 
+/**
+ * Replays a cached body straight from its array: bulk reads copy from it without going through {@code read()}.
+ */
 public class CachedBodyServletInputStream extends ServletInputStream {
-    private final InputStream inputStream;
+    private final byte[] body;
+    private final ServletRequest request;
+    private int position;
+    private ReadListener readListener;
+    private AsyncContext asyncContext;
+    private boolean allDataReadNotified;
 
-    public CachedBodyServletInputStream(byte[] body) {
-        this.inputStream = new ByteArrayInputStream(body);
+    public CachedBodyServletInputStream(byte[] body, ServletRequest request) {
+        this.body = body;
+        this.request = request;
     }
 
     @Override
-    public int read() throws IOException {
-        return inputStream.read();
+    public int read() {
+        if (position >= body.length) {
+            return -1;
+        }
+        int b = body[position] & 0xFF;
+        advance(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= body.length) {
+            return -1;
+        }
+        int count = Math.min(len, body.length - position);
+        System.arraycopy(body, position, b, off, count);
+        advance(count);
+        return count;
+    }
+
+    @Override
+    public byte[] readAllBytes() {
+        byte[] rest = Arrays.copyOfRange(body, position, body.length);
+        advance(rest.length);
+        return rest;
+    }
+
+    @Override
+    public byte[] readNBytes(int len) {
+        if (len < 0) {
+            throw new IllegalArgumentException("len < 0");
+        }
+        int count = Math.min(len, body.length - position);
+        byte[] read = Arrays.copyOfRange(body, position, position + count);
+        advance(count);
+        return read;
+    }
+
+    @Override
+    public int readNBytes(byte[] b, int off, int len) {
+        int count = read(b, off, len);
+        return Math.max(count, 0);
+    }
+
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        int count = body.length - position;
+        out.write(body, position, count);
+        advance(count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        long count = Math.max(0, Math.min(n, body.length - position));
+        advance((int) count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return body.length - position;
     }
 
     @Override
-    @SneakyThrows
     public boolean isFinished() {
-        return inputStream.available() == 0;
+        return position >= body.length;
     }
 
     @Override
@@ -31,8 +105,56 @@ public class CachedBodyServletInputStream extends ServletInputStream {
         return true;
     }
 
+    /**
+     * The whole body is already in memory, so it is always ready. The callbacks run on a container thread through
+     * the {@link AsyncContext}, never inside this call: {@code onDataAvailable} once if anything is left to read,
+     * and {@code onAllDataRead} as soon as a read reaches the end of the body, whichever callback it is made from.
+     */
     @Override
     public void setReadListener(ReadListener listener) {
-        throw new UnsupportedOperationException("setReadListener() is not supported in this implementation");
+        Objects.requireNonNull(listener, "ReadListener must not be null");
+        if (readListener != null) {
+            throw new IllegalStateException("ReadListener is already set");
+        }
+        if (!request.isAsyncStarted()) {
+            throw new IllegalStateException("Non-blocking reads require an async request");
+        }
+        readListener = listener;
+        asyncContext = request.getAsyncContext();
+        if (isFinished()) {
+            notifyAllDataRead();
+        } else {
+            dispatch(listener::onDataAvailable);
+        }
+    }
+
+    private void advance(int count) {
+        position += count;
+        if (readListener != null && isFinished()) {
+            notifyAllDataRead();
+        }
+    }
+
+    private void notifyAllDataRead() {
+        if (!allDataReadNotified) {
+            allDataReadNotified = true;
+            dispatch(readListener::onAllDataRead);
+        }
+    }
+
+    private void dispatch(Callback callback) {
+        ReadListener listener = readListener;
+        asyncContext.start(() -> {
+            try {
+                callback.run();
+            } catch (Throwable t) {
+                listener.onError(t);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Callback {
+        void run() throws IOException;
     }
 }
@@ -0,0 +1,256 @@
+package com.uzum.wms.logging.starter.config;
+
+import feign.Logger;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "logging.wms-starter")
+public class LoggingProperties {
+
+    /**
+     * Checked on every request, so the filter can be switched off at runtime (e.g. after a config refresh).
+     */
+    private volatile boolean enabled = true;
+
+    /**
+     * STREAMING keeps only a bounded prefix of the request body, CACHED copies the whole body on-heap
+     * and logs the request before the handler runs.
+     */
+    private RequestCaptureMode requestCapture = RequestCaptureMode.STREAMING;
+
+    /**
+     * Ant-style patterns of request paths that are passed through without logging.
+     */
+    private List<String> excludedUris = new ArrayList<>(List.of("/actuator/prometheus", "/actuator/health",
+            "/actuator/env", "/swagger-ui/**", "/swagger-ui.html", "/or/v3/api-docs**", "/or/v3/api-docs/**",
+            "/v3/api-docs/**", "/v3/api-docs**"));
+
+    /**
+     * Per-route overrides, the first route matching the path and the method wins.
+     */
+    private List<Route> routes = new ArrayList<>();
+
+    private final Async async = new Async();
+
+    private final Sampling sampling = new Sampling();
+
+    private final Feign feign = new Feign();
+
+    private final Headers headers = new Headers();
+
+    private final Redaction redaction = new Redaction();
+
+    private final Multipart multipart = new Multipart();
+
+    public enum RequestCaptureMode {
+        STREAMING,
+        CACHED,
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Drop the event and count it.
+         */
+        DROP,
+        /**
+         * Wait on the request thread until the worker frees a slot and count the wait.
+         */
+        BLOCK,
+    }
+
+    public enum SamplingPolicy {
+        ALWAYS,
+        PROBABILITY,
+        /**
+         * A token bucket of {@code permits-per-second} per route: every {@code routes} entry has its own,
+         * the paths matching no route share one.
+         */
+        RATE_LIMIT,
+        /**
+         * Keep a prefix of every body while the request runs and log it only for 4xx/5xx, an exception or a request
+         * slower than {@code slow-threshold}. Other requests are logged as one summary line.
+         */
+        TAIL,
+    }
+
+    @Getter
+    @Setter
+    public static class Sampling {
+
+        /**
+         * Which requests get their bodies captured. The rest are logged without payload.
+         */
+        private SamplingPolicy policy = SamplingPolicy.ALWAYS;
+
+        private double probability = 1.0;
+
+        private int permitsPerSecond = 10;
+
+        /**
+         * Keep the bodies of unsampled requests that end with 4xx/5xx or an exception.
+         */
+        private boolean alwaysOnError = false;
+
+        /**
+         * Keep the bodies of unsampled requests that take at least this long.
+         */
+        private Duration slowThreshold;
+    }
+
+    @Getter
+    @Setter
+    public static class Route {
+
+        /**
+         * Ant-style path pattern, the same syntax as {@code excluded-uris}.
+         */
+        private String path;
+
+        /**
+         * HTTP methods the route applies to, all methods when empty.
+         */
+        private Set<String> methods = new HashSet<>();
+
+        private boolean bodyCapture = true;
+
+        /**
+         * Overrides {@code logging.maxPayload} for the request body of the route.
+         */
+        private Integer requestMaxPayload;
+
+        /**
+         * Overrides {@code logging.maxPayload} for the response body of the route.
+         */
+        private Integer responseMaxPayload;
+
+        private boolean headers = true;
+
+        /**
+         * Overrides {@code logging.wms-starter.sampling} for the route.
+         */
+        private Sampling sampling;
+    }
+
+    @Getter
+    @Setter
+    public static class Async {
+
+        /**
+         * Serialize and write log lines on a background worker instead of the request thread.
+         */
+        private boolean enabled = false;
+
+        private int queueCapacity = 8192;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+        /**
+         * How long the context shutdown waits for the worker before writing the rest of the queue itself.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Feign {
+
+        /**
+         * Default {@code Logger.Level} of Feign clients,
+         * {@code spring.cloud.openfeign.client.config.<client>.logger-level} overrides it per client.
+         */
+        private Logger.Level level = Logger.Level.FULL;
+
+        /**
+         * Keyed by the client name ({@code CatalogClient}) or the client and method
+         * ({@code "[CatalogClient#export]"}), as in the Feign configKey. A method entry inherits unset values
+         * from its client entry.
+         */
+        private Map<String, FeignClient> clients = new LinkedHashMap<>();
+    }
+
+    @Getter
+    @Setter
+    public static class FeignClient {
+
+        /**
+         * Unset values are inherited from the client entry, then from the defaults.
+         */
+        private Boolean enabled;
+
+        /**
+         * Overrides {@code logging.maxPayload} for the request body of the client.
+         */
+        private Integer requestMaxPayload;
+
+        /**
+         * Overrides {@code logging.maxPayload} for the response body of the client.
+         */
+        private Integer responseMaxPayload;
+
+        private Boolean headers;
+
+        /**
+         * Share of calls logged with bodies, from 0.0 to 1.0. The rest are logged without them.
+         */
+        private Double sampleRate;
+    }
+
+    @Getter
+    @Setter
+    public static class Headers {
+
+        /**
+         * When not empty, only these headers (and the masked ones) are logged. Names are case-insensitive.
+         */
+        private List<String> allow = new ArrayList<>();
+
+        /**
+         * Headers that are never logged, wins over {@code allow} and {@code mask}. {@code Authorization} is dropped
+         * in addition to these unless it is listed in {@code allow} or {@code mask}.
+         */
+        private List<String> deny = new ArrayList<>();
+
+        /**
+         * Headers logged with all but the last {@code mask-keep-last} characters replaced.
+         */
+        private List<String> mask = new ArrayList<>();
+
+        private int maskKeepLast = 4;
+    }
+
+    @Getter
+    @Setter
+    public static class Redaction {
+
+        /**
+         * JSON fields whose values are replaced in logged payloads: a name matches at any depth,
+         * a dotted path ({@code customer.passport}) from the root of the body.
+         */
+        private List<String> fields = new ArrayList<>();
+
+        private String replacement = "****";
+    }
+
+    @Getter
+    @Setter
+    public static class Multipart {
+
+        /**
+         * Form fields of a {@code multipart/form-data} request are logged up to this many bytes, file parts
+         * by name, filename, content type and size only.
+         */
+        private int maxFieldLength = 256;
+    }
+
+}
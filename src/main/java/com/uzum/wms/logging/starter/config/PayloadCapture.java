@@ -0,0 +1,76 @@
+package com.uzum.wms.logging.starter.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Keeps the first {@code limit} bytes of a body that is streamed through it and counts the rest.
+ * Not thread-safe: a body is read or written by one thread at a time.
+ */
+public class PayloadCapture {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final int limit;
+    private byte[] buffer;
+    private int size;
+    private long totalLength;
+
+    public PayloadCapture(int limit) {
+        this.limit = Math.max(limit, 0);
+        this.buffer = new byte[Math.min(this.limit, INITIAL_CAPACITY)];
+    }
+
+    public void write(int b) {
+        totalLength++;
+        if (size < limit) {
+            ensureCapacity(size + 1);
+            buffer[size++] = (byte) b;
+        }
+    }
+
+    public void write(byte[] b, int off, int len) {
+        totalLength += len;
+        int toCopy = Math.min(len, limit - size);
+        if (toCopy > 0) {
+            ensureCapacity(size + toCopy);
+            System.arraycopy(b, off, buffer, size, toCopy);
+            size += toCopy;
+        }
+    }
+
+    public void reset() {
+        size = 0;
+        totalLength = 0;
+    }
+
+    public boolean isFull() {
+        return size >= limit;
+    }
+
+    public int getRemaining() {
+        return limit - size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    public boolean isTruncated() {
+        return totalLength > size;
+    }
+
+    public InputStream getContentInputStream() {
+        return new ByteArrayInputStream(buffer, 0, size);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.min(limit, Math.max(capacity, buffer.length * 2)));
+        }
+    }
+}
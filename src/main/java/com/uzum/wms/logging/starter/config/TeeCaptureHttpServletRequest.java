@@ -0,0 +1,121 @@
+package com.uzum.wms.logging.starter.config;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.Part;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Passes the body through to the application as it is read and keeps only a bounded prefix of it.
+ * The callback fires once, when the body has been read to the end or {@link #finishCapture(boolean)} is called.
+ */
+public class TeeCaptureHttpServletRequest extends HttpServletRequestWrapper {
+    private static final int DRAIN_BUFFER_SIZE = 1024;
+
+    private final PayloadCapture capture;
+    private final Consumer<TeeCaptureHttpServletRequest> onBodyConsumed;
+    private final AtomicBoolean bodyConsumed = new AtomicBoolean();
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
+    private volatile boolean partsParsed;
+
+    public TeeCaptureHttpServletRequest(HttpServletRequest request, int captureLimit,
+                                        Consumer<TeeCaptureHttpServletRequest> onBodyConsumed) {
+        super(request);
+        this.capture = new PayloadCapture(captureLimit);
+        this.onBodyConsumed = onBodyConsumed;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new TeeCaptureServletInputStream(super.getInputStream(), capture, this::bodyConsumed);
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            reader = new BufferedReader(new InputStreamReader(getInputStream(), getCharacterEncoding()));
+        }
+        return reader;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        String enc = super.getCharacterEncoding();
+        return enc != null ? enc : StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public Collection<Part> getParts() throws IOException, ServletException {
+        Collection<Part> parts = super.getParts();
+        partsParsed = true;
+        return parts;
+    }
+
+    @Override
+    public Part getPart(String name) throws IOException, ServletException {
+        Part part = super.getPart(name);
+        partsParsed = true;
+        return part;
+    }
+
+    /**
+     * Whether the application asked for the multipart parts, so the container has already parsed them.
+     */
+    public boolean isPartsParsed() {
+        return partsParsed;
+    }
+
+    public PayloadCapture getCapture() {
+        return capture;
+    }
+
+    /**
+     * Length of the whole body: the declared Content-Length when the application stopped reading early. A body
+     * without Content-Length that was drained past the window counts one byte more than the window, so it is
+     * reported as truncated although its full length is not known.
+     */
+    public long getBodyLength() {
+        return Math.max(capture.getTotalLength(), getContentLengthLong());
+    }
+
+    /**
+     * The headers are not trusted to tell whether there is a body, as an HTTP/2 request may send one with neither
+     * Content-Length nor Transfer-Encoding. A request without a body just reads the end of the stream here.
+     *
+     * @param drain read the unread rest of the body into the capture window, never more than the window holds
+     */
+    public void finishCapture(boolean drain) throws IOException {
+        if (drain && !bodyConsumed.get()) {
+            ServletInputStream stream = getInputStream();
+            byte[] chunk = new byte[DRAIN_BUFFER_SIZE];
+            while (!capture.isFull() && !bodyConsumed.get()
+                    && stream.read(chunk, 0, Math.min(chunk.length, capture.getRemaining())) != -1) {
+                // the tee stream copies what is read into the capture
+            }
+            if (capture.isFull() && !bodyConsumed.get() && getContentLengthLong() < 0) {
+                // a full window is not the end of a chunked or HTTP/2 body, so one more byte tells whether it was cut
+                stream.read();
+            }
+        }
+        bodyConsumed();
+    }
+
+    private void bodyConsumed() {
+        if (bodyConsumed.compareAndSet(false, true)) {
+            onBodyConsumed.accept(this);
+        }
+    }
+}
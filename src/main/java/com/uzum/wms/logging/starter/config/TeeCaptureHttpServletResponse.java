@@ -0,0 +1,195 @@
+package com.uzum.wms.logging.starter.config;
+
+import com.uzum.wms.logging.starter.policy.ContentTypeClassifier;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Writes the body straight through to the real response and keeps only a bounded prefix of it.
+ * Content-Length, flushing and commit state are left to the wrapped response, except for streamed responses:
+ * those are flushed on every write and only counted.
+ */
+public class TeeCaptureHttpServletResponse extends HttpServletResponseWrapper {
+    private final int captureLimit;
+    private final BooleanSupplier streamingHandler;
+    private PayloadCapture capture = new PayloadCapture(0);
+    private boolean passThrough;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    public TeeCaptureHttpServletResponse(HttpServletResponse response, int captureLimit) {
+        this(response, captureLimit, () -> false);
+    }
+
+    /**
+     * @param streamingHandler tells whether the handler streams its body, checked when the body is first opened
+     */
+    public TeeCaptureHttpServletResponse(HttpServletResponse response, int captureLimit,
+                                         BooleanSupplier streamingHandler) {
+        super(response);
+        this.captureLimit = captureLimit;
+        this.streamingHandler = streamingHandler;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called on this response");
+        }
+        if (outputStream == null) {
+            PayloadCapture payloadCapture = newCapture();
+            outputStream = new TeeCaptureServletOutputStream(super.getOutputStream(), payloadCapture, passThrough);
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called on this response");
+        }
+        if (writer == null) {
+            PayloadCapture payloadCapture = newCapture();
+            writer = new PassThroughPrintWriter(new TeeCaptureServletOutputStream(super.getOutputStream(),
+                    payloadCapture, passThrough), getCharacterEncoding());
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        capture.reset();
+        passThrough = false;
+        outputStream = null;
+        writer = null;
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        capture.reset();
+    }
+
+    public InputStream getContentInputStream() {
+        return capture.getContentInputStream();
+    }
+
+    public long getContentSize() {
+        return capture.getTotalLength();
+    }
+
+    /**
+     * How many bytes of the body are kept in memory, at most the capture limit.
+     */
+    public int getCapturedSize() {
+        return capture.getSize();
+    }
+
+    /**
+     * Whether the body is streamed to the client: an event stream, a chunked body or a streaming handler.
+     */
+    public boolean isPassThrough() {
+        return passThrough;
+    }
+
+    /**
+     * The Content-Type and the handler are known before the body is written, so a binary or streamed body
+     * is only counted from its first byte.
+     */
+    private PayloadCapture newCapture() {
+        ContentTypeClassifier.Category category = ContentTypeClassifier.DEFAULT.classify(getContentType());
+        passThrough = category == ContentTypeClassifier.Category.STREAMING || isChunked()
+                || streamingHandler.getAsBoolean();
+        capture = new PayloadCapture(category.isCaptured() && !passThrough ? captureLimit : 0);
+        return capture;
+    }
+
+    private boolean isChunked() {
+        String transferEncoding = getHeader(HttpHeaders.TRANSFER_ENCODING);
+        return transferEncoding != null && transferEncoding.toLowerCase().contains("chunked");
+    }
+
+    /**
+     * Encodes every write straight into the output stream, so nothing is left in the encoder when the response
+     * completes. Only an explicit flush reaches the wrapped stream and commits the response.
+     */
+    private static class PassThroughPrintWriter extends PrintWriter {
+        private final ServletOutputStream target;
+
+        PassThroughPrintWriter(ServletOutputStream target, String charset) throws IOException {
+            super(new OutputStreamWriter(new NonFlushingOutputStream(target), charset), true);
+            this.target = target;
+        }
+
+        @Override
+        public void write(int c) {
+            super.write(c);
+            drainEncoder();
+        }
+
+        @Override
+        public void write(char[] buf, int off, int len) {
+            super.write(buf, off, len);
+            drainEncoder();
+        }
+
+        @Override
+        public void write(String s, int off, int len) {
+            super.write(s, off, len);
+            drainEncoder();
+        }
+
+        @Override
+        public void flush() {
+            super.flush();
+            try {
+                target.flush();
+            } catch (IOException e) {
+                setError();
+            }
+        }
+
+        private void drainEncoder() {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                setError();
+            }
+        }
+    }
+
+    private static class NonFlushingOutputStream extends FilterOutputStream {
+
+        NonFlushingOutputStream(ServletOutputStream target) {
+            super(target);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            //do nothing: the writer drains its encoder after every write
+        }
+    }
+}
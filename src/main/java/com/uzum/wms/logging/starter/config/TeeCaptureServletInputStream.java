@@ -0,0 +1,87 @@
+package com.uzum.wms.logging.starter.config;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+
+import java.io.IOException;
+
+public class TeeCaptureServletInputStream extends ServletInputStream {
+    private final ServletInputStream delegate;
+    private final PayloadCapture capture;
+    private final Runnable onFinished;
+
+    public TeeCaptureServletInputStream(ServletInputStream delegate, PayloadCapture capture, Runnable onFinished) {
+        this.delegate = delegate;
+        this.capture = capture;
+        this.onFinished = onFinished;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = delegate.read();
+        if (b != -1) {
+            capture.write(b);
+        }
+        checkFinished(b == -1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int count = delegate.read(b, off, len);
+        if (count > 0) {
+            capture.write(b, off, count);
+        }
+        checkFinished(count == -1);
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return delegate.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return delegate.isFinished();
+    }
+
+    @Override
+    public boolean isReady() {
+        return delegate.isReady();
+    }
+
+    @Override
+    public void setReadListener(ReadListener listener) {
+        delegate.setReadListener(listener == null ? null : new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                listener.onDataAvailable();
+            }
+
+            @Override
+            public void onAllDataRead() throws IOException {
+                // with non-blocking reads the handler may stop at isReady() == false and never see the end of stream
+                onFinished.run();
+                listener.onAllDataRead();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                listener.onError(t);
+            }
+        });
+    }
+
+    private void checkFinished(boolean endOfStream) {
+        // parsers usually stop right after the last token, so the end of the stream may never be read explicitly
+        if (endOfStream || delegate.isFinished()) {
+            onFinished.run();
+        }
+    }
+}
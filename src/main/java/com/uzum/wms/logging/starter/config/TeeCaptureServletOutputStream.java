@@ -0,0 +1,65 @@
+package com.uzum.wms.logging.starter.config;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+import java.io.IOException;
+
+public class TeeCaptureServletOutputStream extends ServletOutputStream {
+    private final ServletOutputStream delegate;
+    private final PayloadCapture capture;
+    private final boolean flushEachWrite;
+
+    public TeeCaptureServletOutputStream(ServletOutputStream delegate, PayloadCapture capture) {
+        this(delegate, capture, false);
+    }
+
+    /**
+     * @param flushEachWrite pushes every write to the client, for event streams and downloads that must not wait
+     *                       for the container buffer to fill up
+     */
+    public TeeCaptureServletOutputStream(ServletOutputStream delegate, PayloadCapture capture,
+                                         boolean flushEachWrite) {
+        this.delegate = delegate;
+        this.capture = capture;
+        this.flushEachWrite = flushEachWrite;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        delegate.write(b);
+        capture.write(b);
+        if (flushEachWrite) {
+            delegate.flush();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        delegate.write(b, off, len);
+        capture.write(b, off, len);
+        if (flushEachWrite) {
+            delegate.flush();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public boolean isReady() {
+        return delegate.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener listener) {
+        delegate.setWriteListener(listener);
+    }
+}
@@ -0,0 +1,130 @@
+package com.uzum.wms.logging.starter.feignclient;
+
+import com.uzum.wms.logging.starter.config.PayloadCapture;
+import feign.Response;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Streams a response body to the decoder and keeps a bounded prefix of it. The capture is handed over once,
+ * when the decoder reaches the end of the body or closes it.
+ */
+public class CapturingResponseBody implements Response.Body {
+    private final Response.Body delegate;
+    private final PayloadCapture capture;
+    private final Consumer<PayloadCapture> onFinished;
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private InputStream inputStream;
+
+    public CapturingResponseBody(Response.Body delegate, int limit, Consumer<PayloadCapture> onFinished) {
+        this.delegate = delegate;
+        this.capture = new PayloadCapture(limit);
+        this.onFinished = onFinished;
+    }
+
+    @Override
+    public Integer length() {
+        return delegate.length();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public InputStream asInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new CapturingInputStream(delegate.asInputStream());
+        }
+        return inputStream;
+    }
+
+    @Override
+    public Reader asReader(Charset charset) throws IOException {
+        return new InputStreamReader(asInputStream(), charset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+        } finally {
+            finish();
+        }
+    }
+
+    private void finish() {
+        if (finished.compareAndSet(false, true)) {
+            onFinished.accept(capture);
+        }
+    }
+
+    private class CapturingInputStream extends FilterInputStream {
+
+        CapturingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b == -1) {
+                finish();
+            } else {
+                capture.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = in.read(b, off, len);
+            if (count == -1) {
+                finish();
+            } else {
+                capture.write(b, off, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes still count towards the body length
+            if (n <= 0) {
+                return 0;
+            }
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int count = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (count == -1) {
+                    break;
+                }
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                finish();
+            }
+        }
+    }
+}
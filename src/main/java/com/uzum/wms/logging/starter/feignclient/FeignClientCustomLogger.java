@@ -1,77 +1,222 @@
 package com.uzum.wms.logging.starter.feignclient;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import com.uzum.wms.logging.starter.config.PayloadCapture;
+import com.uzum.wms.logging.starter.metrics.LoggingMetrics;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEvent;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEventSerializer;
+import com.uzum.wms.logging.starter.policy.ContentTypeClassifier;
+import com.uzum.wms.logging.starter.policy.FeignClientPolicy;
+import com.uzum.wms.logging.starter.policy.FeignClientPolicyResolver;
+import com.uzum.wms.logging.starter.policy.HeaderPolicy;
 import feign.Logger;
 import feign.Request;
 import feign.Response;
-import feign.Util;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.util.StreamUtils;
+import org.springframework.http.HttpHeaders;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Objects;
 
-@RequiredArgsConstructor
+/**
+ * Writes outbound calls as {@code requestInfo}/{@code responseInfo} lines with {@code "direction":"outbound"},
+ * through the same {@link HttpLogEventSerializer} as the filter.
+ */
 @Slf4j
 public class FeignClientCustomLogger extends Logger {
-    private final Integer maxPayload;
+    private final FeignClientPolicyResolver policies;
+    private final HeaderPolicy headerPolicy;
+    private final HttpLogEventSerializer serializer;
+    private final LoggingMetrics loggingMetrics;
+
+    public FeignClientCustomLogger(Integer maxPayload) {
+        this(maxPayload, new LoggingMetrics());
+    }
+
+    public FeignClientCustomLogger(Integer maxPayload, LoggingMetrics loggingMetrics) {
+        this(new FeignClientPolicyResolver(new LoggingProperties.Feign(), maxPayload), HeaderPolicy.DEFAULT,
+                new HttpLogEventSerializer(new JsonFactory(), maxPayload, loggingMetrics), loggingMetrics);
+    }
+
+    public FeignClientCustomLogger(FeignClientPolicyResolver policies, HeaderPolicy headerPolicy,
+                                   HttpLogEventSerializer serializer, LoggingMetrics loggingMetrics) {
+        this.policies = policies;
+        this.headerPolicy = headerPolicy;
+        this.serializer = serializer;
+        this.loggingMetrics = loggingMetrics;
+    }
 
     @Override
     protected void logRequest(String configKey, Level logLevel, Request request) {
-        this.log(configKey, "Request URI: %s, Method: %s, Headers: %s, Request body: %s",
-                request.url(),
-                request.httpMethod().name(),
-                request.headers(),
-                request.body() != null ? new String(request.body(), StandardCharsets.UTF_8) : "empty-body"
-        );
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        FeignClientPolicy policy = policies.resolve(configKey);
+        if (!policy.isEnabled()) {
+            return;
+        }
+        HttpLogEvent.HttpLogEventBuilder event = HttpLogEvent.builder()
+                .type(HttpLogEvent.Type.REQUEST)
+                .direction(HttpLogEvent.Direction.OUTBOUND)
+                .client(clientTag(configKey))
+                .uri(request.url())
+                .method(request.httpMethod().name())
+                .headers(isHeadersLogged(logLevel, policy) ? buildHeaders(request.headers()) : HttpHeaders.EMPTY)
+                .contentType(contentType(request.headers()))
+                .maxPayload(policy.getRequestMaxPayload());
+        if (isBodyLogged(logLevel, policy, request) && request.body() != null) {
+            loggingMetrics.recordCaptured(request.body().length);
+            event.payload(request.body()).payloadLength(request.body().length);
+        }
+        write(event.build());
     }
 
     @Override
     public Response logAndRebufferResponse(String configKey, Level logLevel, Response response, long elapsedTime) {
-        String responsePayload = "";
-        Response clonedResponse = response.toBuilder().build();
-
-        if (Objects.nonNull(response.body())) {
+        if (!log.isInfoEnabled()) {
+            return response;
+        }
+        FeignClientPolicy policy = policies.resolve(configKey);
+        if (!policy.isEnabled()) {
+            return response;
+        }
+        HttpLogEvent.HttpLogEventBuilder event = responseEvent(configKey, logLevel, policy, response, elapsedTime);
+        Response.Body body = response.body();
+        if (!isBodyLogged(logLevel, policy, response.request())) {
+            write(event.build());
+            return response;
+        }
+        if (Objects.isNull(body)) {
+            write(event.build());
+            return response.toBuilder().build();
+        }
+        int maxPayload = policy.getResponseMaxPayload();
+        Integer contentLength = body.length();
+        boolean captured = ContentTypeClassifier.DEFAULT.classify(contentType(response.headers())).isCaptured();
+        if (contentLength != null && (contentLength > maxPayload || !captured)) {
+            write(event.payloadLength(contentLength).build());
+            return response.toBuilder().build();
+        }
+        if (contentLength != null && body.isRepeatable()) {
+            // already on-heap, e.g. after another logger or a retry buffered it
             try {
-                byte[] bodyData = Util.toByteArray(response.body().asInputStream());
-                Response.Body responseBodyCopy = response.toBuilder().body(bodyData).build().body();
-                clonedResponse = response.toBuilder().body(responseBodyCopy).build();
-                responsePayload = buildResponsePayload(responseBodyCopy, bodyData.length);
+                byte[] payload = body.asInputStream().readAllBytes();
+                loggingMetrics.recordFeignBuffered(payload.length);
+                loggingMetrics.recordCaptured(payload.length);
+                event.payload(payload).payloadLength(contentLength);
             } catch (IOException exception) {
                 log.error(
                         "Error while reading the Feign client response || Error Details: {}",
                         exception.getMessage());
             }
+            write(event.build());
+            return response.toBuilder().build();
         }
-        this.log(configKey, "Response took [%sms] Status code: %s, Headers: %s, Response body: %s",
-                elapsedTime,
-                response.status(),
-                response.headers(),
-                responsePayload
-        );
-        return clonedResponse;
+        // the body is logged when the decoder has read or closed it, keeping at most maxPayload bytes meanwhile
+        CapturingResponseBody capturingBody = new CapturingResponseBody(body, captured ? maxPayload : 0,
+                capture -> logCapturedResponse(event, capture));
+        return response.toBuilder().body(capturingBody).build();
     }
 
     @Override
     protected void log(String configKey, String format, Object... args) {
-        log.info(format(configKey, format, args));
+        // retries and IO errors come here from feign.Logger
+        if (log.isInfoEnabled()) {
+            log.info(format(configKey, format, args));
+        }
     }
 
+    /**
+     * feign.Logger only passes {@code %s} and {@code %n} placeholders, so they are substituted directly instead of
+     * parsing the format with {@link String#format}. Any other sequence is copied as is.
+     */
     protected String format(String configKey, String format, Object... args) {
-        String methodTag = methodTag(configKey);
-        String formattedString = String.format(format, args);
-        return methodTag + formattedString;
+        StringBuilder formatted = new StringBuilder(methodTag(configKey));
+        int argIndex = 0;
+        int length = format.length();
+        for (int i = 0; i < length; i++) {
+            char c = format.charAt(i);
+            if (c == '%' && i + 1 < length) {
+                char next = format.charAt(i + 1);
+                if (next == 's') {
+                    formatted.append(args != null && argIndex < args.length ? args[argIndex++] : null);
+                    i++;
+                    continue;
+                } else if (next == 'n') {
+                    formatted.append(System.lineSeparator());
+                    i++;
+                    continue;
+                }
+            }
+            formatted.append(c);
+        }
+        return formatted.toString();
+    }
+
+    private HttpLogEvent.HttpLogEventBuilder responseEvent(String configKey, Level logLevel, FeignClientPolicy policy,
+                                                           Response response, long elapsedTime) {
+        Request request = response.request();
+        return HttpLogEvent.builder()
+                .type(HttpLogEvent.Type.RESPONSE)
+                .direction(HttpLogEvent.Direction.OUTBOUND)
+                .client(clientTag(configKey))
+                .uri(request != null ? request.url() : null)
+                .method(request != null ? request.httpMethod().name() : null)
+                .status(response.status())
+                .durationMillis(elapsedTime)
+                .headers(isHeadersLogged(logLevel, policy) ? buildHeaders(response.headers()) : HttpHeaders.EMPTY)
+                .contentType(contentType(response.headers()))
+                .maxPayload(policy.getResponseMaxPayload());
+    }
+
+    private HttpHeaders buildHeaders(Map<String, Collection<String>> headers) {
+        return headerPolicy.filter(headers.keySet().iterator(), name -> headers.get(name).iterator());
     }
 
-    private String buildResponsePayload(Response.Body response, long contentLength) throws IOException {
-        return contentLength > maxPayload ?
-                String.format("Can't log payload: response body content length is %s", contentLength)
-                : getResponseBody(response);
+    private void logCapturedResponse(HttpLogEvent.HttpLogEventBuilder event, PayloadCapture capture) {
+        loggingMetrics.recordFeignBuffered(capture.getSize());
+        loggingMetrics.recordCaptured(capture.getSize());
+        try {
+            event.payload(capture.getContentInputStream().readAllBytes()).payloadLength(capture.getTotalLength());
+        } catch (IOException exception) {
+            log.error(
+                    "Error while reading the Feign client response || Error Details: {}",
+                    exception.getMessage());
+        }
+        write(event.build());
+    }
+
+    private void write(HttpLogEvent event) {
+        try {
+            log.info(serializer.serialize(event));
+        } catch (Exception e) {
+            log.error("Unable to build {} message. Error is: ", event.getType().name().toLowerCase(), e);
+        }
     }
 
-    protected String getResponseBody(Response.Body response) throws IOException {
-        return StreamUtils.copyToString(response.asInputStream(), Charset.defaultCharset());
+    private static boolean isHeadersLogged(Level logLevel, FeignClientPolicy policy) {
+        return logLevel.ordinal() >= Level.HEADERS.ordinal() && policy.isHeaders();
+    }
+
+    private static boolean isBodyLogged(Level logLevel, FeignClientPolicy policy, Request request) {
+        return logLevel == Level.FULL && policy.isBodySampled(request);
+    }
+
+    private static String clientTag(String configKey) {
+        int paren = configKey.indexOf('(');
+        return paren < 0 ? configKey : configKey.substring(0, paren);
+    }
+
+    private static String contentType(Map<String, Collection<String>> headers) {
+        // Feign builds case-insensitive maps, but a hand-made Request or Response may not
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                return header.getValue().iterator().next();
+            }
+        }
+        return null;
     }
 }
@@ -1,6 +1,14 @@
 package com.uzum.wms.logging.starter.feignclient;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import com.uzum.wms.logging.starter.metrics.LoggingMetrics;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEventSerializer;
+import com.uzum.wms.logging.starter.policy.FeignClientPolicyResolver;
+import com.uzum.wms.logging.starter.policy.HeaderPolicy;
+import com.uzum.wms.logging.starter.redaction.JsonRedactor;
 import feign.Logger;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -8,18 +16,31 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.context.annotation.Bean;
 
 
+/**
+ * Registered per Feign client, so it runs in each client's child context and takes {@link LoggingProperties}
+ * from the application context: one bean, and a change made to it at runtime reaches every client.
+ */
 @ConditionalOnClass(FeignClient.class)
 public class FeignClientCustomLoggerConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    Logger.Level feignLoggerLevel() {
-        return Logger.Level.FULL;
+    Logger.Level feignLoggerLevel(LoggingProperties loggingProperties) {
+        return loggingProperties.getFeign().getLevel();
     }
 
     @Bean
-    public Logger logger(@Value("${logging.maxPayload:5000}") Integer maxPayload) {
-        return new FeignClientCustomLogger(maxPayload);
+    public Logger logger(@Value("${logging.maxPayload:5000}") Integer maxPayload,
+                         LoggingProperties loggingProperties,
+                         ObjectProvider<LoggingMetrics> loggingMetrics,
+                         ObjectProvider<HttpLogEventSerializer> httpLogEventSerializer) {
+        LoggingMetrics metrics = loggingMetrics.getIfAvailable(LoggingMetrics::new);
+        return new FeignClientCustomLogger(new FeignClientPolicyResolver(loggingProperties.getFeign(), maxPayload),
+                HeaderPolicy.compile(loggingProperties.getHeaders()),
+                httpLogEventSerializer.getIfAvailable(() ->
+                        new HttpLogEventSerializer(new JsonFactory(), maxPayload, metrics,
+                                JsonRedactor.compile(loggingProperties.getRedaction()))),
+                metrics);
     }
 
 }
@@ -1,47 +1,49 @@
 package com.uzum.wms.logging.starter.filters;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.TextNode;
 import com.uzum.wms.logging.starter.config.CachedBodyHttpServletRequest;
-import com.uzum.wms.logging.starter.constants.LoggingAttribute;
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import com.uzum.wms.logging.starter.config.TeeCaptureHttpServletRequest;
+import com.uzum.wms.logging.starter.config.TeeCaptureHttpServletResponse;
 import com.uzum.wms.logging.starter.listeners.AsyncLoggingListener;
+import com.uzum.wms.logging.starter.matcher.PathPatternMatcher;
+import com.uzum.wms.logging.starter.metrics.LoggingMetrics;
+import com.uzum.wms.logging.starter.metrics.RequestPhaseRecorder;
+import com.uzum.wms.logging.starter.metrics.RequestTiming;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEvent;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEventPublisher;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEventSerializer;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEventWriter;
+import com.uzum.wms.logging.starter.policy.ContentTypeClassifier;
+import com.uzum.wms.logging.starter.policy.HeaderPolicy;
+import com.uzum.wms.logging.starter.policy.RoutePolicy;
+import com.uzum.wms.logging.starter.policy.RoutePolicyResolver;
+import com.uzum.wms.logging.starter.sampling.SamplingDecision;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.MDC;
+import org.springframework.core.ResolvableType;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.web.filter.AbstractRequestLoggingFilter;
-import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-
-import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
-import static org.springframework.http.MediaType.APPLICATION_FORM_URLENCODED_VALUE;
-import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
-import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
-import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
-import static org.springframework.http.MediaType.APPLICATION_PDF_VALUE;
-import static org.springframework.http.MediaType.IMAGE_GIF_VALUE;
-import static org.springframework.http.MediaType.IMAGE_JPEG_VALUE;
-import static org.springframework.http.MediaType.IMAGE_PNG_VALUE;
-import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
-import static org.springframework.http.MediaType.MULTIPART_MIXED_VALUE;
-import static org.springframework.http.MediaType.MULTIPART_RELATED_VALUE;
-import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 
 @Slf4j
 public class RequestResponseFilter extends AbstractRequestLoggingFilter {
@@ -49,24 +51,42 @@ public class RequestResponseFilter extends AbstractRequestLoggingFilter {
     private static final String DURATION = "duration";
     public static final String INIT_URI = "initUri";
     private static final String HTTP_STATUS = "httpStatus";
-    private final ObjectMapper objectMapper;
-    private final Integer maxPayload;
-
-    private static final Set<String> EXCLUDED_HEADERS = Set.of("authorization");
-    private static final List<String> EXCLUDED_URI =
-            List.of("/actuator/prometheus", "/actuator/health", "/actuator/env", "/swagger-ui/**", "/swagger-ui.html",
-                    "/or/v3/api-docs**", "/or/v3/api-docs/**", "/v3/api-docs/**", "/v3/api-docs**");
+    private static final String DEFERRED_REQUEST_EVENT = "DEFERRED_REQUEST_EVENT";
+    private final LoggingProperties loggingProperties;
+    private final HttpLogEventPublisher httpLogEventPublisher;
+    private final RoutePolicyResolver routePolicies;
+    private final PathPatternMatcher excludedUris;
+    private final HeaderPolicy headerPolicy;
+    private final RequestPhaseRecorder requestPhaseRecorder;
+    private final LoggingMetrics loggingMetrics;
 
     public RequestResponseFilter(ObjectMapper objectMapper, Integer maxPayload) {
+        this(maxPayload, new LoggingProperties(),
+                new HttpLogEventWriter(new HttpLogEventSerializer(objectMapper.getFactory(), maxPayload)));
+    }
+
+    public RequestResponseFilter(Integer maxPayload, LoggingProperties loggingProperties,
+                                 HttpLogEventPublisher httpLogEventPublisher) {
+        this(maxPayload, loggingProperties, httpLogEventPublisher, RequestPhaseRecorder.NOOP, new LoggingMetrics());
+    }
+
+    public RequestResponseFilter(Integer maxPayload, LoggingProperties loggingProperties,
+                                 HttpLogEventPublisher httpLogEventPublisher,
+                                 RequestPhaseRecorder requestPhaseRecorder, LoggingMetrics loggingMetrics) {
         this.setIncludePayload(true);
         this.setMaxPayloadLength(maxPayload);
-        this.maxPayload = maxPayload;
-        this.objectMapper = objectMapper;
+        this.loggingProperties = loggingProperties;
+        this.httpLogEventPublisher = httpLogEventPublisher;
+        this.routePolicies = new RoutePolicyResolver(loggingProperties, maxPayload);
+        this.excludedUris = PathPatternMatcher.compile(loggingProperties.getExcludedUris());
+        this.headerPolicy = HeaderPolicy.compile(loggingProperties.getHeaders());
+        this.requestPhaseRecorder = requestPhaseRecorder;
+        this.loggingMetrics = loggingMetrics;
     }
 
     @Override
     protected void beforeRequest(HttpServletRequest request, String message) {
-        request.setAttribute(INCOMING_REQUEST_TIME, LocalDateTime.now());
+        request.setAttribute(INCOMING_REQUEST_TIME, RequestTiming.start());
     }
 
     @Override
@@ -77,149 +97,303 @@ public class RequestResponseFilter extends AbstractRequestLoggingFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        if (containsActuatorUrls(request.getRequestURI())) {
+        if (!isLoggingActive()) {
+            // both checks are cheap and re-evaluated per request, so raising the level at runtime takes effect at once
+            filterChain.doFilter(request, response);
+        } else if (excludedUris.matches(request.getRequestURI())) {
             super.doFilterInternal(request, response, filterChain);
         } else {
-            ContentCachingResponseWrapper cachingResponseWrapper = new ContentCachingResponseWrapper(response);
-            CachedBodyHttpServletRequest cachedBodyHttpServletRequest = new CachedBodyHttpServletRequest(request);
+            RequestTiming timing = beforeRequest(request);
+            RoutePolicy policy = routePolicies.resolve(request.getMethod(), request.getRequestURI());
+            SamplingDecision decision = policy.isBodyCapture()
+                    ? policy.getBodySampler().sample() : SamplingDecision.SKIP;
+            HttpServletRequest requestWrapper = wrapRequest(request, decision, policy);
+            HttpServletResponse responseWrapper = decision == SamplingDecision.SKIP ? response
+                    : new TeeCaptureHttpServletResponse(response, policy.getResponseMaxPayload(),
+                    () -> isStreamingHandler(request));
+            boolean failed = true;
+            timing.markHandlerStart();
             try {
-                logRequest(cachedBodyHttpServletRequest);
-                super.doFilterInternal(cachedBodyHttpServletRequest, cachingResponseWrapper, filterChain);
+                filterChain.doFilter(requestWrapper, responseWrapper);
+                failed = false;
             } finally {
-                logResponse(cachedBodyHttpServletRequest, cachingResponseWrapper);
+                timing.markHandlerEnd();
+                if (requestWrapper instanceof TeeCaptureHttpServletRequest teeCaptureRequest) {
+                    // an async handler may still be reading the body, so only a finished request is drained
+                    finishRequestCapture(teeCaptureRequest, !teeCaptureRequest.isAsyncStarted());
+                    if (!teeCaptureRequest.isAsyncStarted()) {
+                        logMultipartRequest(teeCaptureRequest, policy, decision);
+                    }
+                }
+                timing.markDrainEnd();
+                logResponse(requestWrapper, responseWrapper, decision, policy, timing, failed);
                 clearMDC();
             }
         }
     }
 
+    private HttpServletRequest wrapRequest(HttpServletRequest request, SamplingDecision decision, RoutePolicy policy)
+            throws IOException {
+        boolean deferred = decision == SamplingDecision.DEFER;
+        if (decision == SamplingDecision.SKIP) {
+            logRequest(request, InputStream.nullInputStream(), 0, policy, false, null);
+            return request;
+        }
+        if (isMultipartForm(request)) {
+            // the upload is only counted and its parts are described once the handler is done with them
+            return new TeeCaptureHttpServletRequest(request, 0, consumed -> {
+            });
+        }
+        // a binary body is only counted, so it is never buffered whatever the capture mode
+        boolean captured = ContentTypeClassifier.DEFAULT.classify(request.getContentType()).isCaptured();
+        if (captured && loggingProperties.getRequestCapture() == LoggingProperties.RequestCaptureMode.CACHED) {
+            CachedBodyHttpServletRequest cachedBodyHttpServletRequest = new CachedBodyHttpServletRequest(request);
+            loggingMetrics.recordCaptured(cachedBodyHttpServletRequest.getContentSize());
+            logRequest(cachedBodyHttpServletRequest, cachedBodyHttpServletRequest.getInputStream(),
+                    cachedBodyHttpServletRequest.getContentSize(), policy, deferred, null);
+            return cachedBodyHttpServletRequest;
+        }
+        return new TeeCaptureHttpServletRequest(request, captured ? policy.getRequestMaxPayload() : 0, consumed -> {
+            loggingMetrics.recordCaptured(consumed.getCapture().getSize());
+            logRequest(consumed, consumed.getCapture().getContentInputStream(), consumed.getBodyLength(), policy,
+                    deferred, null);
+        });
+    }
+
+    private void finishRequestCapture(TeeCaptureHttpServletRequest teeCaptureRequest, boolean drain) {
+        try {
+            teeCaptureRequest.finishCapture(drain);
+        } catch (IOException e) {
+            log.error("Unable to read request body. Error is: ", e);
+        }
+    }
+
+    /**
+     * A {@code StreamingResponseBody} or a {@code ResponseBodyEmitter} (SSE included) writes its body after the
+     * handler returns, for as long as the connection lives.
+     */
+    private static boolean isStreamingHandler(HttpServletRequest request) {
+        if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)) {
+            return false;
+        }
+        ResolvableType returnType = ResolvableType.forMethodParameter(handler.getReturnType());
+        if (ResponseEntity.class.isAssignableFrom(returnType.toClass())) {
+            returnType = returnType.getGeneric();
+        }
+        Class<?> bodyType = returnType.toClass();
+        return StreamingResponseBody.class.isAssignableFrom(bodyType)
+                || ResponseBodyEmitter.class.isAssignableFrom(bodyType);
+    }
+
+    private boolean isLoggingActive() {
+        return loggingProperties.isEnabled() && log.isDebugEnabled();
+    }
+
     private void clearMDC() {
         MDC.remove(INIT_URI);
         MDC.remove(DURATION);
         MDC.remove(HTTP_STATUS);
     }
 
-    private void logRequest(HttpServletRequest httpServletRequest) {
-        beforeRequest(httpServletRequest);
+    private void logRequest(HttpServletRequest httpServletRequest, InputStream body, long bodyLength,
+                            RoutePolicy policy, boolean deferred, List<HttpLogEvent.Part> parts) {
         try {
-            ServletServerHttpRequest servletServerHttpRequest = new ServletServerHttpRequest(httpServletRequest);
-            ObjectNode message = objectMapper.createObjectNode();
-            message.putPOJO(LoggingAttribute.HTTP_URI.getName(), servletServerHttpRequest.getURI());
-            message.put(LoggingAttribute.HTTP_METHOD.getName(), httpServletRequest.getMethod());
-            message.putPOJO(LoggingAttribute.HTTP_HEADERS.getName(), getHeaders(servletServerHttpRequest));
-            String remoteAddr = httpServletRequest.getRemoteAddr();
-            if (StringUtils.isNotBlank(remoteAddr)) {
-                message.put(LoggingAttribute.REMOTE_ADDRESS.getName(), remoteAddr);
-            }
-            JsonNode payload = buildPayload(httpServletRequest.getContentType(), httpServletRequest.getInputStream());
-            if (payload != null) {
-                message.set(LoggingAttribute.HTTP_PAYLOAD.getName(), payload);
+            HttpLogEvent event = HttpLogEvent.builder()
+                    .type(HttpLogEvent.Type.REQUEST)
+                    .uri(new ServletServerHttpRequest(httpServletRequest).getURI().toString())
+                    .method(httpServletRequest.getMethod())
+                    .headers(policy.isHeaders() ? buildHeaders(httpServletRequest) : HttpHeaders.EMPTY)
+                    .remoteAddress(httpServletRequest.getRemoteAddr())
+                    .contentType(httpServletRequest.getContentType())
+                    .parts(parts)
+                    .payload(body.readAllBytes())
+                    .payloadLength(bodyLength)
+                    .maxPayload(policy.getRequestMaxPayload())
+                    .mdc(MDC.getCopyOfContextMap())
+                    .build();
+            if (deferred) {
+                // published with or without the body once the outcome of the request is known
+                httpServletRequest.setAttribute(DEFERRED_REQUEST_EVENT, event);
+            } else {
+                httpLogEventPublisher.publish(event);
             }
-            log.debug(objectMapper.createObjectNode().set("requestInfo", message).toString());
         } catch (Exception e) {
             log.error("Unable to build request message. Error is: ", e);
         }
     }
 
-    private HttpHeaders getHeaders(ServletServerHttpRequest servletServerHttpRequest) {
-        HttpHeaders filteredHeaders = new HttpHeaders();
-        servletServerHttpRequest.getHeaders().forEach((headerName, headerValues) -> {
-            // TODO можно маскировать, а не просто скипать чувствительные данные
-            if (!EXCLUDED_HEADERS.contains(headerName.toLowerCase())) {
-                filteredHeaders.put(headerName, headerValues);
+    /**
+     * Runs after the handler. The parts are described only if the application asked the container for them, as
+     * asking here would parse the whole upload and maybe spool it to disk just for the log; otherwise only the
+     * length is logged.
+     */
+    private void logMultipartRequest(TeeCaptureHttpServletRequest request, RoutePolicy policy,
+                                     SamplingDecision decision) {
+        if (isMultipartForm(request)) {
+            logRequest(request, InputStream.nullInputStream(), request.getBodyLength(), policy,
+                    decision == SamplingDecision.DEFER, request.isPartsParsed() ? describeParts(request) : null);
+        }
+    }
+
+    private static boolean isMultipartForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    /**
+     * The container parses the parts from the raw stream and keeps large files on disk, so only their metadata
+     * and the beginning of each form field are read here.
+     */
+    private List<HttpLogEvent.Part> describeParts(HttpServletRequest request) {
+        int maxFieldLength = loggingProperties.getMultipart().getMaxFieldLength();
+        List<HttpLogEvent.Part> parts = new ArrayList<>();
+        try {
+            for (Part part : request.getParts()) {
+                String value = null;
+                if (part.getSubmittedFileName() == null) {
+                    try (InputStream field = part.getInputStream()) {
+                        value = new String(field.readNBytes(maxFieldLength), StandardCharsets.UTF_8);
+                    }
+                }
+                parts.add(new HttpLogEvent.Part(part.getName(), part.getSubmittedFileName(), part.getContentType(),
+                        part.getSize(), value));
             }
-        });
-        return filteredHeaders;
+        } catch (IOException | ServletException | IllegalStateException e) {
+            // the handler read the raw body itself or multipart support is not configured
+            log.debug("Unable to read multipart request parts: {}", e.getMessage());
+        }
+        return parts;
     }
 
-    private void beforeRequest(HttpServletRequest request) {
+    private RequestTiming beforeRequest(HttpServletRequest request) {
+        RequestTiming timing = RequestTiming.start();
+        request.setAttribute(INCOMING_REQUEST_TIME, timing);
         String uriPath = request.getRequestURI() + Optional.ofNullable(request.getQueryString())
                 .map(qString -> "?" + qString).orElse("");
         MDC.put(INIT_URI, uriPath);
+        return timing;
     }
 
-    private void logResponse(CachedBodyHttpServletRequest requestWrapper, ContentCachingResponseWrapper
-            responseWrapper) throws IOException {
-        boolean isAsyncStarted = requestWrapper.isAsyncStarted();
-        Duration duration = Duration.between((LocalDateTime) requestWrapper.getAttribute(INCOMING_REQUEST_TIME),
-                LocalDateTime.now());
-        try (var ignored1 = MDC.putCloseable(DURATION, String.valueOf(duration.toMillis()));
-             var ignore3 = MDC.putCloseable(HTTP_STATUS, String.valueOf(responseWrapper.getStatus()))) {
-
-            if (!isAsyncStarted) {
-                ObjectNode message = objectMapper.createObjectNode();
-                message.putPOJO(LoggingAttribute.HTTP_URI.getName(),
-                        new ServletServerHttpRequest(requestWrapper).getURI());
-                message.put(HTTP_STATUS, responseWrapper.getStatus());
-                HttpHeaders httpHeaders = buildHeaders(responseWrapper);
-                if (!httpHeaders.isEmpty()) {
-                    message.putPOJO(LoggingAttribute.HTTP_HEADERS.getName(), httpHeaders);
-                }
-                JsonNode payload =
-                        buildPayload(responseWrapper.getContentType(), responseWrapper.getContentInputStream());
-                if (payload != null) {
-                    message.set(LoggingAttribute.HTTP_PAYLOAD.getName(), payload);
+    private void logResponse(HttpServletRequest requestWrapper, HttpServletResponse responseWrapper,
+                             SamplingDecision decision, RoutePolicy policy, RequestTiming timing, boolean failed) {
+        if (!requestWrapper.isAsyncStarted()) {
+            logOutcome(requestWrapper, responseWrapper, decision, policy, timing, failed);
+            return;
+        }
+        // the status, the body and the duration are only final once the async request completes
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        requestWrapper.getAsyncContext().addListener(new AsyncLoggingListener(asyncFailed -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            setMDC(mdc);
+            try {
+                timing.markHandlerEnd();
+                if (requestWrapper instanceof TeeCaptureHttpServletRequest teeCaptureRequest) {
+                    finishRequestCapture(teeCaptureRequest, false);
+                    logMultipartRequest(teeCaptureRequest, policy, decision);
                 }
-                log.debug(objectMapper.createObjectNode().set("responseInfo", message).toString());
+                timing.markDrainEnd();
+                logOutcome(requestWrapper, responseWrapper, decision, policy, timing, failed || asyncFailed);
+            } finally {
+                setMDC(previous);
             }
-        } catch (Exception e) {
-            log.error("Unable to build response message. Error is: ", e);
-        } finally {
-            if (isAsyncStarted) {
-                requestWrapper.getAsyncContext()
-                        .addListener(new AsyncLoggingListener(responseWrapper));
+        }));
+    }
+
+    private void logOutcome(HttpServletRequest requestWrapper, HttpServletResponse responseWrapper,
+                            SamplingDecision decision, RoutePolicy policy, RequestTiming timing, boolean failed) {
+        if (responseWrapper instanceof TeeCaptureHttpServletResponse teeCaptureResponse) {
+            // counted whether or not the body ends up in the log
+            loggingMetrics.recordCaptured(teeCaptureResponse.getCapturedSize());
+        }
+        long duration = timing.getElapsedMillis();
+        try (var ignored1 = MDC.putCloseable(DURATION, String.valueOf(duration));
+             var ignore3 = MDC.putCloseable(HTTP_STATUS, String.valueOf(responseWrapper.getStatus()))) {
+            if (decision != SamplingDecision.DEFER) {
+                publishResponse(requestWrapper, responseWrapper, duration, policy,
+                        decision == SamplingDecision.CAPTURE);
             } else {
-                responseWrapper.copyBodyToResponse();
+                publishDeferred(requestWrapper, responseWrapper, duration, policy, failed);
             }
+        } catch (Exception e) {
+            log.error("Unable to build response message. Error is: ", e);
+        }
+        try {
+            // runs from finally, so a failing recorder must not replace the handler's own exception
+            timing.markLoggingEnd();
+            requestPhaseRecorder.record(requestWrapper, responseWrapper.getStatus(), timing);
+        } catch (Exception e) {
+            log.error("Unable to record request phases. Error is: ", e);
         }
     }
 
-    private boolean containsActuatorUrls(String url) {
-        return EXCLUDED_URI.stream().anyMatch(excludeUrl -> excludeUrl.equals(url));
+    private void publishDeferred(HttpServletRequest requestWrapper, HttpServletResponse responseWrapper,
+                                 long duration, RoutePolicy policy, boolean failed) throws IOException {
+        HttpLogEvent deferredRequest = (HttpLogEvent) requestWrapper.getAttribute(DEFERRED_REQUEST_EVENT);
+        requestWrapper.removeAttribute(DEFERRED_REQUEST_EVENT);
+        if (policy.getBodySampler().isKept(responseWrapper.getStatus(), failed, duration)) {
+            if (deferredRequest != null) {
+                httpLogEventPublisher.publish(deferredRequest);
+            }
+            publishResponse(requestWrapper, responseWrapper, duration, policy, true);
+        } else {
+            httpLogEventPublisher.publish(HttpLogEvent.builder()
+                    .type(HttpLogEvent.Type.SUMMARY)
+                    .uri(new ServletServerHttpRequest(requestWrapper).getURI().toString())
+                    .method(requestWrapper.getMethod())
+                    .status(responseWrapper.getStatus())
+                    .durationMillis(duration)
+                    .payloadLength(deferredRequest != null ? deferredRequest.getPayloadLength() : 0)
+                    .responseLength(responseWrapper instanceof TeeCaptureHttpServletResponse teeCaptureResponse
+                            ? teeCaptureResponse.getContentSize() : 0)
+                    .mdc(MDC.getCopyOfContextMap())
+                    .build());
+        }
     }
 
-    private JsonNode buildPayload(String contentType, InputStream inputStream) throws IOException {
-        String payload = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-        if (StringUtils.isNotBlank(payload)) {
-            int payloadLength = payload.length();
-            if (payloadLength > maxPayload) {
-                return TextNode.valueOf(String.format("Payload length=%s but maxPayload=%s. " +
-                                "Please, increase logging.maxPayload. Truncated content: %s", payloadLength, maxPayload,
-                        payload.substring(0, maxPayload)));
-            } else {
-                return buildByContentType(contentType, payload);
-            }
+    private void publishResponse(HttpServletRequest requestWrapper, HttpServletResponse responseWrapper,
+                                 long duration, RoutePolicy policy, boolean keepBody) throws IOException {
+        HttpLogEvent.HttpLogEventBuilder event = HttpLogEvent.builder()
+                .type(HttpLogEvent.Type.RESPONSE)
+                .uri(new ServletServerHttpRequest(requestWrapper).getURI().toString())
+                .method(requestWrapper.getMethod())
+                .status(responseWrapper.getStatus())
+                .durationMillis(duration)
+                .headers(policy.isHeaders() ? buildHeaders(responseWrapper) : HttpHeaders.EMPTY)
+                .contentType(responseWrapper.getContentType())
+                .maxPayload(policy.getResponseMaxPayload())
+                .mdc(MDC.getCopyOfContextMap());
+        if (responseWrapper instanceof TeeCaptureHttpServletResponse teeCaptureResponse
+                && teeCaptureResponse.isPassThrough()) {
+            event.responseLength(teeCaptureResponse.getContentSize());
+        } else if (keepBody && responseWrapper instanceof TeeCaptureHttpServletResponse teeCaptureResponse) {
+            event.payload(teeCaptureResponse.getContentInputStream().readAllBytes())
+                    .payloadLength(teeCaptureResponse.getContentSize());
         }
-        return null;
+        httpLogEventPublisher.publish(event.build());
     }
 
-    private JsonNode buildByContentType(String contentType, String payload) throws JsonProcessingException {
-        if (StringUtils.isBlank(contentType)) {
-            return TextNode.valueOf(String.format("Content-Type is not specified: %s", payload));
-        } else if (APPLICATION_JSON_VALUE.equals(contentType) || APPLICATION_JSON_UTF8_VALUE.equals(contentType)) {
-            return objectMapper.readTree(payload);
+    private static void setMDC(Map<String, String> contextMap) {
+        if (contextMap != null) {
+            MDC.setContextMap(contextMap);
         } else {
-            return switch (contentType) {
-                case APPLICATION_PDF_VALUE,
-                        APPLICATION_OCTET_STREAM_VALUE,
-                        MULTIPART_FORM_DATA_VALUE,
-                        APPLICATION_CBOR_VALUE,
-                        APPLICATION_FORM_URLENCODED_VALUE,
-                        IMAGE_GIF_VALUE,
-                        IMAGE_JPEG_VALUE,
-                        IMAGE_PNG_VALUE,
-                        MULTIPART_MIXED_VALUE,
-                        TEXT_EVENT_STREAM_VALUE,
-                        MULTIPART_RELATED_VALUE -> TextNode.valueOf(String.format("Content-Type is %s", contentType));
-                default -> TextNode.valueOf(String.format("Content-Type is %s. Content: %s", contentType, payload));
-            };
-        }
-    }
-
-    private HttpHeaders buildHeaders(ContentCachingResponseWrapper responseWrapper) {
-        HttpHeaders httpHeaders = new HttpHeaders();
-        responseWrapper.getHeaderNames()
-                .forEach(headerName -> httpHeaders.add(headerName, responseWrapper.getHeader(headerName)));
-        return httpHeaders;
+            MDC.clear();
+        }
+    }
+
+    private HttpHeaders buildHeaders(HttpServletRequest request) {
+        HttpHeaders headers = headerPolicy.filter(request.getHeaderNames().asIterator(),
+                name -> request.getHeaders(name).asIterator());
+        // the container may know the length without a header for it, as ServletServerHttpRequest also reports
+        if (request.getContentLengthLong() >= 0 && !headers.containsKey(HttpHeaders.CONTENT_LENGTH)
+                && headerPolicy.resolve(HttpHeaders.CONTENT_LENGTH) == HeaderPolicy.Action.LOG) {
+            headers.setContentLength(request.getContentLengthLong());
+        }
+        return headers;
+    }
+
+    private HttpHeaders buildHeaders(HttpServletResponse responseWrapper) {
+        return headerPolicy.filter(responseWrapper.getHeaderNames().iterator(),
+                name -> responseWrapper.getHeaders(name).iterator());
     }
 
 }
@@ -3,27 +3,39 @@ package com.uzum.wms.logging.starter.listeners;
 import jakarta.servlet.AsyncEvent;
 import jakarta.servlet.AsyncListener;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
-import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
+/**
+ * Hands the outcome of an async request back to the filter once the container completes it. A timeout or an error
+ * is always followed by {@code onComplete}, so it is only recorded here and the callback runs once, on completion.
+ */
 @Slf4j
 public class AsyncLoggingListener implements AsyncListener {
-    private final ContentCachingResponseWrapper responseWrapper;
-
-    public AsyncLoggingListener(ContentCachingResponseWrapper responseWrapper) {
-        this.responseWrapper = responseWrapper;
+    private final Consumer<Boolean> onComplete;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private volatile boolean failed;
+
+    /**
+     * @param onComplete called once when the request completes, with whether it timed out or failed on the way
+     */
+    public AsyncLoggingListener(Consumer<Boolean> onComplete) {
+        this.onComplete = onComplete;
     }
 
-    public void onComplete(AsyncEvent asyncEvent) throws IOException {
-        responseWrapper.copyBodyToResponse();
+    public void onComplete(AsyncEvent asyncEvent) {
+        if (completed.compareAndSet(false, true)) {
+            onComplete.accept(failed);
+        }
     }
 
     public void onTimeout(AsyncEvent asyncEvent) {
-        //do nothing
+        failed = true;
     }
 
     public void onError(AsyncEvent asyncEvent) {
+        failed = true;
         log.error("Async request was complete with error:", asyncEvent.getThrowable());
     }
 
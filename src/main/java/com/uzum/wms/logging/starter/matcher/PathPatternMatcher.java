@@ -0,0 +1,149 @@
+package com.uzum.wms.logging.starter.matcher;
+
+import com.uzum.wms.logging.starter.cache.BoundedCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Matches request paths against Ant-style patterns compiled into a trie of path segments. {@code *} and {@code ?}
+ * match within a segment, {@code {name}} matches one segment and {@code **} any number of segments.
+ * A lookup walks the path in place without splitting it, and results for hot paths are cached.
+ */
+public class PathPatternMatcher {
+    private static final int DEFAULT_CACHED_PATHS = 1024;
+    private static final String ANY_SEGMENTS = "**";
+
+    private final Node root = new Node();
+    private final BoundedCache<String, Boolean> decisions;
+
+    private PathPatternMatcher(int maxCachedPaths) {
+        this.decisions = new BoundedCache<>(maxCachedPaths);
+    }
+
+    public static PathPatternMatcher compile(Collection<String> patterns) {
+        return compile(patterns, DEFAULT_CACHED_PATHS);
+    }
+
+    /**
+     * @param maxCachedPaths how many paths keep their result, 0 when the caller caches on its own
+     */
+    public static PathPatternMatcher compile(Collection<String> patterns, int maxCachedPaths) {
+        PathPatternMatcher matcher = new PathPatternMatcher(maxCachedPaths);
+        patterns.forEach(matcher::add);
+        return matcher;
+    }
+
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        return decisions.get(path, key -> match(root, key, 0));
+    }
+
+    private void add(String pattern) {
+        Node node = root;
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals(ANY_SEGMENTS)) {
+                node = node.anySegments != null ? node.anySegments : (node.anySegments = new Node());
+            } else if (segment.startsWith("{") && segment.endsWith("}")) {
+                node = node.child(node.globs, node.globChildren, "*");
+            } else if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0) {
+                node = node.child(node.globs, node.globChildren, segment);
+            } else {
+                node = node.child(node.literals, node.literalChildren, segment);
+            }
+        }
+        node.terminal = true;
+    }
+
+    private static boolean match(Node node, String path, int from) {
+        int start = from;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        if (node.anySegments != null) {
+            for (int pos = start; ; pos = nextSegment(path, pos)) {
+                if (match(node.anySegments, path, pos)) {
+                    return true;
+                }
+                if (pos >= path.length()) {
+                    break;
+                }
+            }
+        }
+        if (start == path.length()) {
+            return node.terminal;
+        }
+        int end = path.indexOf('/', start);
+        end = end < 0 ? path.length() : end;
+        int length = end - start;
+        for (int i = 0; i < node.literals.size(); i++) {
+            String literal = node.literals.get(i);
+            if (literal.length() == length && path.regionMatches(start, literal, 0, length)
+                    && match(node.literalChildren.get(i), path, end)) {
+                return true;
+            }
+        }
+        for (int i = 0; i < node.globs.size(); i++) {
+            if (globMatches(node.globs.get(i), path, start, end) && match(node.globChildren.get(i), path, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int nextSegment(String path, int pos) {
+        int slash = path.indexOf('/', pos);
+        return slash < 0 ? path.length() : slash + 1;
+    }
+
+    private static boolean globMatches(String glob, String path, int start, int end) {
+        int g = 0;
+        int p = start;
+        int starAt = -1;
+        int starMatch = 0;
+        while (p < end) {
+            if (g < glob.length() && (glob.charAt(g) == '?' || glob.charAt(g) == path.charAt(p))) {
+                g++;
+                p++;
+            } else if (g < glob.length() && glob.charAt(g) == '*') {
+                starAt = g++;
+                starMatch = p;
+            } else if (starAt >= 0) {
+                g = starAt + 1;
+                p = ++starMatch;
+            } else {
+                return false;
+            }
+        }
+        while (g < glob.length() && glob.charAt(g) == '*') {
+            g++;
+        }
+        return g == glob.length();
+    }
+
+    private static final class Node {
+        private final List<String> literals = new ArrayList<>();
+        private final List<Node> literalChildren = new ArrayList<>();
+        private final List<String> globs = new ArrayList<>();
+        private final List<Node> globChildren = new ArrayList<>();
+        private Node anySegments;
+        private boolean terminal;
+
+        private Node child(List<String> segments, List<Node> children, String segment) {
+            int index = segments.indexOf(segment);
+            if (index >= 0) {
+                return children.get(index);
+            }
+            Node child = new Node();
+            segments.add(segment);
+            children.add(child);
+            return child;
+        }
+    }
+}
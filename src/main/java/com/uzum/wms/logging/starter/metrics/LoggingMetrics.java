@@ -0,0 +1,70 @@
+package com.uzum.wms.logging.starter.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What the starter itself costs. Plain {@link LongAdder}s, so counting from many request threads does not contend;
+ * {@link LoggingMetricsBinder} exposes them to Micrometer when it is on the classpath.
+ */
+public class LoggingMetrics {
+    private final LongAdder capturedBytes = new LongAdder();
+    private final LongAdder loggedBytes = new LongAdder();
+    private final LongAdder truncations = new LongAdder();
+    private final LongAdder jsonParseFailures = new LongAdder();
+    private final LongAdder serializations = new LongAdder();
+    private final LongAdder serializationNanos = new LongAdder();
+    private final LongAdder feignBufferedBytes = new LongAdder();
+
+    public void recordCaptured(long bytes) {
+        capturedBytes.add(bytes);
+    }
+
+    public void recordLogged(long bytes) {
+        loggedBytes.add(bytes);
+    }
+
+    public void recordTruncation() {
+        truncations.increment();
+    }
+
+    public void recordJsonParseFailure() {
+        jsonParseFailures.increment();
+    }
+
+    public void recordSerialization(long nanos) {
+        serializations.increment();
+        serializationNanos.add(nanos);
+    }
+
+    public void recordFeignBuffered(long bytes) {
+        feignBufferedBytes.add(bytes);
+    }
+
+    public long getCapturedBytes() {
+        return capturedBytes.sum();
+    }
+
+    public long getLoggedBytes() {
+        return loggedBytes.sum();
+    }
+
+    public long getTruncations() {
+        return truncations.sum();
+    }
+
+    public long getJsonParseFailures() {
+        return jsonParseFailures.sum();
+    }
+
+    public long getSerializations() {
+        return serializations.sum();
+    }
+
+    public long getSerializationNanos() {
+        return serializationNanos.sum();
+    }
+
+    public long getFeignBufferedBytes() {
+        return feignBufferedBytes.sum();
+    }
+}
@@ -0,0 +1,65 @@
+package com.uzum.wms.logging.starter.metrics;
+
+import com.uzum.wms.logging.starter.pipeline.AsyncHttpLogEventPublisher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+public class LoggingMetricsBinder implements MeterBinder {
+    private static final String BYTES = "bytes";
+
+    private final LoggingMetrics loggingMetrics;
+    private final AsyncHttpLogEventPublisher asyncPublisher;
+
+    /**
+     * @param asyncPublisher null when log lines are written on the request thread
+     */
+    public LoggingMetricsBinder(LoggingMetrics loggingMetrics, AsyncHttpLogEventPublisher asyncPublisher) {
+        this.loggingMetrics = loggingMetrics;
+        this.asyncPublisher = asyncPublisher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "wms.logging.payload.captured", LoggingMetrics::getCapturedBytes, BYTES,
+                "Body bytes handed to the serializer");
+        counter(registry, "wms.logging.payload.logged", LoggingMetrics::getLoggedBytes, BYTES,
+                "Bytes of serialized log lines");
+        counter(registry, "wms.logging.payload.truncated", LoggingMetrics::getTruncations, null,
+                "Payloads cut to logging.maxPayload");
+        counter(registry, "wms.logging.payload.json.failures", LoggingMetrics::getJsonParseFailures, null,
+                "JSON payloads that did not parse and were logged as text");
+        counter(registry, "wms.logging.feign.buffered", LoggingMetrics::getFeignBufferedBytes, BYTES,
+                "Feign response bytes buffered for logging");
+        FunctionTimer.builder("wms.logging.serialization", loggingMetrics, LoggingMetrics::getSerializations,
+                        LoggingMetrics::getSerializationNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent serializing log lines")
+                .register(registry);
+        if (asyncPublisher != null) {
+            FunctionCounter.builder("wms.logging.events.dropped", asyncPublisher,
+                            AsyncHttpLogEventPublisher::getDroppedCount)
+                    .description("Events dropped because the queue was full")
+                    .register(registry);
+            FunctionCounter.builder("wms.logging.events.blocked", asyncPublisher,
+                            AsyncHttpLogEventPublisher::getBlockedCount)
+                    .description("Events that waited for a free slot in the queue")
+                    .register(registry);
+            Gauge.builder("wms.logging.events.queued", asyncPublisher, AsyncHttpLogEventPublisher::getQueueSize)
+                    .description("Events waiting to be written")
+                    .register(registry);
+        }
+    }
+
+    private void counter(MeterRegistry registry, String name, ToDoubleFunction<LoggingMetrics> count, String baseUnit,
+                         String description) {
+        FunctionCounter.builder(name, loggingMetrics, count)
+                .baseUnit(baseUnit)
+                .description(description)
+                .register(registry);
+    }
+}
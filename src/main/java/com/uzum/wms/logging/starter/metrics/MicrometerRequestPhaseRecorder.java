@@ -0,0 +1,72 @@
+package com.uzum.wms.logging.starter.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records phases into {@code wms.logging.request.phase} timers tagged by phase, route template and status.
+ * Timers are looked up by route and status without building tags, and the number of routes is capped, so requests
+ * that never matched a handler or arrive past the cap share one tag value.
+ */
+public class MicrometerRequestPhaseRecorder implements RequestPhaseRecorder {
+    public static final String METRIC_NAME = "wms.logging.request.phase";
+    private static final int MAX_ROUTES = 256;
+    private static final int MAX_STATUS = 600;
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+    private static final String OTHER_ROUTES = "OTHER";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, AtomicReferenceArray<PhaseTimers>> timers = new ConcurrentHashMap<>();
+
+    public MicrometerRequestPhaseRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void record(HttpServletRequest request, int status, RequestTiming timing) {
+        PhaseTimers phaseTimers = phaseTimers(route(request), status < 0 || status >= MAX_STATUS ? 0 : status);
+        phaseTimers.preProcessing().record(timing.getPreProcessingNanos(), TimeUnit.NANOSECONDS);
+        phaseTimers.handler().record(timing.getHandlerNanos(), TimeUnit.NANOSECONDS);
+        phaseTimers.drain().record(timing.getDrainNanos(), TimeUnit.NANOSECONDS);
+        phaseTimers.logging().record(timing.getLoggingNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (!(pattern instanceof String route)) {
+            return UNKNOWN_ROUTE;
+        }
+        return timers.containsKey(route) || timers.size() < MAX_ROUTES ? route : OTHER_ROUTES;
+    }
+
+    private PhaseTimers phaseTimers(String route, int status) {
+        AtomicReferenceArray<PhaseTimers> byStatus =
+                timers.computeIfAbsent(route, ignored -> new AtomicReferenceArray<>(MAX_STATUS));
+        PhaseTimers phaseTimers = byStatus.get(status);
+        if (phaseTimers == null) {
+            String statusTag = String.valueOf(status);
+            phaseTimers = new PhaseTimers(timer("pre", route, statusTag), timer("handler", route, statusTag),
+                    timer("drain", route, statusTag), timer("logging", route, statusTag));
+            // registering twice returns the same timers, so a lost race only costs the lookup
+            byStatus.compareAndSet(status, null, phaseTimers);
+        }
+        return phaseTimers;
+    }
+
+    private Timer timer(String phase, String route, String status) {
+        return Timer.builder(METRIC_NAME)
+                .description("Time a request spends in each phase of the logging filter")
+                .tags("phase", phase, "uri", route, "status", status)
+                .register(meterRegistry);
+    }
+
+    private record PhaseTimers(Timer preProcessing, Timer handler, Timer drain, Timer logging) {
+    }
+}
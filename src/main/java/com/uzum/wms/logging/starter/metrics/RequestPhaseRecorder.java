@@ -0,0 +1,13 @@
+package com.uzum.wms.logging.starter.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Receives the phase timings of every logged request.
+ */
+public interface RequestPhaseRecorder {
+    RequestPhaseRecorder NOOP = (request, status, timing) -> {
+    };
+
+    void record(HttpServletRequest request, int status, RequestTiming timing);
+}
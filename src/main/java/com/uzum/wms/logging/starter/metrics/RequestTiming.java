@@ -0,0 +1,66 @@
+package com.uzum.wms.logging.starter.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link System#nanoTime()} marks of the phases a request goes through in the filter: pre-processing up to the
+ * handler, the handler itself (until completion for async requests), draining the unread request body and logging.
+ */
+public class RequestTiming {
+    private final long startNanos;
+    private long handlerStartNanos;
+    private long handlerEndNanos;
+    private long drainEndNanos;
+    private long loggingEndNanos;
+
+    public RequestTiming(long startNanos) {
+        this.startNanos = startNanos;
+        this.handlerStartNanos = startNanos;
+        this.handlerEndNanos = startNanos;
+        this.drainEndNanos = startNanos;
+        this.loggingEndNanos = startNanos;
+    }
+
+    public static RequestTiming start() {
+        return new RequestTiming(System.nanoTime());
+    }
+
+    public void markHandlerStart() {
+        handlerStartNanos = System.nanoTime();
+    }
+
+    public void markHandlerEnd() {
+        handlerEndNanos = System.nanoTime();
+    }
+
+    public void markDrainEnd() {
+        drainEndNanos = System.nanoTime();
+    }
+
+    public void markLoggingEnd() {
+        loggingEndNanos = System.nanoTime();
+    }
+
+    /**
+     * From entering the filter to the end of the handler and the body drain, what the log line reports.
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(drainEndNanos - startNanos);
+    }
+
+    public long getPreProcessingNanos() {
+        return handlerStartNanos - startNanos;
+    }
+
+    public long getHandlerNanos() {
+        return handlerEndNanos - handlerStartNanos;
+    }
+
+    public long getDrainNanos() {
+        return drainEndNanos - handlerEndNanos;
+    }
+
+    public long getLoggingNanos() {
+        return loggingEndNanos - drainEndNanos;
+    }
+}
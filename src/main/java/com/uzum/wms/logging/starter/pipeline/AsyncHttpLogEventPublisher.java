@@ -0,0 +1,161 @@
+package com.uzum.wms.logging.starter.pipeline;
+
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands events over to a single background worker that serializes and writes them, so the request thread
+ * only pays for building the event. The queue is lock-free and bounded by a counter; what happens when it is
+ * full is decided by {@link LoggingProperties.OverflowPolicy}.
+ */
+@Slf4j
+public class AsyncHttpLogEventPublisher implements HttpLogEventPublisher, SmartLifecycle {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final HttpLogEventWriter writer;
+    private final LoggingProperties.Async properties;
+    private final Queue<HttpLogEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder blockedCount = new LongAdder();
+    private volatile boolean running;
+    private volatile boolean workerParked;
+    private volatile Thread worker;
+
+    public AsyncHttpLogEventPublisher(HttpLogEventWriter writer, LoggingProperties.Async properties) {
+        this.writer = writer;
+        this.properties = properties;
+    }
+
+    @Override
+    public void publish(HttpLogEvent event) {
+        if (!running) {
+            writer.publish(event);
+            return;
+        }
+        if (!reserveSlot()) {
+            return;
+        }
+        queue.offer(event);
+        if (workerParked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private boolean reserveSlot() {
+        int capacity = properties.getQueueCapacity();
+        boolean blocked = false;
+        while (queueSize.incrementAndGet() > capacity) {
+            queueSize.decrementAndGet();
+            if (properties.getOverflowPolicy() == LoggingProperties.OverflowPolicy.DROP || !running) {
+                droppedCount.increment();
+                return false;
+            }
+            if (!blocked) {
+                blocked = true;
+                blockedCount.increment();
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getBlockedCount() {
+        return blockedCount.sum();
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::processEvents, "wms-logging-pipeline");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(properties.getShutdownTimeout().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // whatever the worker did not get to is written here, so nothing queued is lost on shutdown
+        drain();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before and stopped after the embedded web server, so requests in flight during a graceful
+     * shutdown can still publish.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void processEvents() {
+        while (running) {
+            if (!drain()) {
+                workerParked = true;
+                if (queue.isEmpty() && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                workerParked = false;
+            }
+        }
+    }
+
+    private boolean drain() {
+        boolean written = false;
+        HttpLogEvent event;
+        while ((event = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            write(event);
+            written = true;
+        }
+        return written;
+    }
+
+    private void write(HttpLogEvent event) {
+        Map<String, String> mdc = event.getMdc();
+        try {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            writer.publish(event);
+        } catch (Exception e) {
+            log.error("Unable to write log event. Error is: ", e);
+        } finally {
+            MDC.clear();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.uzum.wms.logging.starter.pipeline;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything needed to write one log line, captured on the request thread so it can be serialized elsewhere.
+ */
+@Value
+@Builder(toBuilder = true)
+public class HttpLogEvent {
+    Type type;
+    @Builder.Default
+    Direction direction = Direction.INBOUND;
+    /**
+     * The Feign client and method of an outbound call, e.g. {@code CatalogClient#export}.
+     */
+    String client;
+    String uri;
+    String method;
+    int status;
+    String remoteAddress;
+    long durationMillis;
+    /**
+     * Written as they are here, the serializer applies the header policy while writing.
+     */
+    Map<String, ? extends Collection<String>> headers;
+    String contentType;
+    byte[] payload;
+    long payloadLength;
+    /**
+     * Overrides the serializer's {@code maxPayload} for this line.
+     */
+    Integer maxPayload;
+    /**
+     * The length of a response body that was counted instead of captured. On {@link Type#SUMMARY}
+     * {@code payloadLength} is the length of the request body.
+     */
+    long responseLength;
+    /**
+     * Metadata of a {@code multipart/form-data} request, the file contents are never kept.
+     */
+    List<Part> parts;
+    Map<String, String> mdc;
+
+    @Value
+    public static class Part {
+        String name;
+        /**
+         * Null for a form field.
+         */
+        String filename;
+        String contentType;
+        long size;
+        /**
+         * The value of a form field, cut to {@code logging.wms-starter.multipart.max-field-length} bytes.
+         */
+        String value;
+    }
+
+    public enum Type {
+        REQUEST,
+        RESPONSE,
+        /**
+         * One line standing for both the request and the response when their bodies are not kept.
+         */
+        SUMMARY,
+    }
+
+    public enum Direction {
+        /**
+         * A request served by the application.
+         */
+        INBOUND,
+        /**
+         * A call the application made through a Feign client.
+         */
+        OUTBOUND,
+    }
+}
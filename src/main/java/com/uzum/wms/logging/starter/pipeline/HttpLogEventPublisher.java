@@ -0,0 +1,7 @@
+package com.uzum.wms.logging.starter.pipeline;
+
+public interface HttpLogEventPublisher {
+
+    void publish(HttpLogEvent event);
+
+}
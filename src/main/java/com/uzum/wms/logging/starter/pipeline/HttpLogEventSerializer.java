@@ -0,0 +1,316 @@
+package com.uzum.wms.logging.starter.pipeline;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.uzum.wms.logging.starter.constants.LoggingAttribute;
+import com.uzum.wms.logging.starter.metrics.LoggingMetrics;
+import com.uzum.wms.logging.starter.policy.ContentTypeClassifier;
+import com.uzum.wms.logging.starter.redaction.JsonRedactor;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@code requestInfo}/{@code responseInfo}/{@code requestSummary} lines straight to a {@link JsonGenerator}.
+ * A valid JSON payload is copied into the line as a raw value, without building a tree for it. Shared by the
+ * filter and the Feign logger, so inbound and outbound lines have the same schema and differ in {@code direction}.
+ */
+public class HttpLogEventSerializer {
+    private static final String DIRECTION = "direction";
+    private static final String CLIENT = "client";
+    private static final String HTTP_STATUS = "httpStatus";
+    private static final String DURATION = "duration";
+    private static final String REQUEST_LENGTH = "requestLength";
+    private static final String RESPONSE_LENGTH = "responseLength";
+    private static final String PARTS = "parts";
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private final JsonFactory jsonFactory;
+    private final Integer maxPayload;
+    private final LoggingMetrics loggingMetrics;
+    private final JsonRedactor jsonRedactor;
+    private final ThreadLocal<ByteArrayOutputStream> buffers = ThreadLocal.withInitial(ByteArrayOutputStream::new);
+
+    public HttpLogEventSerializer(JsonFactory jsonFactory, Integer maxPayload) {
+        this(jsonFactory, maxPayload, new LoggingMetrics());
+    }
+
+    public HttpLogEventSerializer(JsonFactory jsonFactory, Integer maxPayload, LoggingMetrics loggingMetrics) {
+        this(jsonFactory, maxPayload, loggingMetrics, JsonRedactor.NONE);
+    }
+
+    public HttpLogEventSerializer(JsonFactory jsonFactory, Integer maxPayload, LoggingMetrics loggingMetrics,
+                                  JsonRedactor jsonRedactor) {
+        this.jsonFactory = jsonFactory;
+        this.maxPayload = maxPayload;
+        this.loggingMetrics = loggingMetrics;
+        this.jsonRedactor = jsonRedactor;
+    }
+
+    public String serialize(HttpLogEvent event) throws IOException {
+        long start = System.nanoTime();
+        ByteArrayOutputStream buffer = buffers.get();
+        buffer.reset();
+        try {
+            try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+                generator.writeStartObject();
+                switch (event.getType()) {
+                    case REQUEST -> writeRequest(generator, event);
+                    case RESPONSE -> writeResponse(generator, event);
+                    case SUMMARY -> writeSummary(generator, event);
+                }
+                generator.writeEndObject();
+            }
+            loggingMetrics.recordLogged(buffer.size());
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            loggingMetrics.recordSerialization(System.nanoTime() - start);
+            if (buffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+                buffers.remove();
+            }
+        }
+    }
+
+    private void writeRequest(JsonGenerator generator, HttpLogEvent event) throws IOException {
+        generator.writeObjectFieldStart("requestInfo");
+        writeCall(generator, event);
+        generator.writeStringField(LoggingAttribute.HTTP_METHOD.getName(), event.getMethod());
+        writeHeaders(generator, event.getHeaders());
+        if (StringUtils.isNotBlank(event.getRemoteAddress())) {
+            generator.writeStringField(LoggingAttribute.REMOTE_ADDRESS.getName(), event.getRemoteAddress());
+        }
+        writePayload(generator, event);
+        if (event.getParts() != null && !event.getParts().isEmpty()) {
+            writeParts(generator, event.getParts());
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeResponse(JsonGenerator generator, HttpLogEvent event) throws IOException {
+        generator.writeObjectFieldStart("responseInfo");
+        writeCall(generator, event);
+        if (event.getMethod() != null) {
+            generator.writeStringField(LoggingAttribute.HTTP_METHOD.getName(), event.getMethod());
+        }
+        generator.writeNumberField(HTTP_STATUS, event.getStatus());
+        generator.writeNumberField(DURATION, event.getDurationMillis());
+        if (event.getResponseLength() > 0) {
+            // a streamed body is only counted
+            generator.writeNumberField(RESPONSE_LENGTH, event.getResponseLength());
+        }
+        if (!event.getHeaders().isEmpty()) {
+            writeHeaders(generator, event.getHeaders());
+        }
+        writePayload(generator, event);
+        generator.writeEndObject();
+    }
+
+    private void writeSummary(JsonGenerator generator, HttpLogEvent event) throws IOException {
+        generator.writeObjectFieldStart("requestSummary");
+        writeCall(generator, event);
+        generator.writeStringField(LoggingAttribute.HTTP_METHOD.getName(), event.getMethod());
+        generator.writeNumberField(HTTP_STATUS, event.getStatus());
+        generator.writeNumberField(DURATION, event.getDurationMillis());
+        generator.writeNumberField(REQUEST_LENGTH, event.getPayloadLength());
+        generator.writeNumberField(RESPONSE_LENGTH, event.getResponseLength());
+        generator.writeEndObject();
+    }
+
+    private static void writeCall(JsonGenerator generator, HttpLogEvent event) throws IOException {
+        generator.writeStringField(DIRECTION, event.getDirection() == HttpLogEvent.Direction.OUTBOUND
+                ? "outbound" : "inbound");
+        if (event.getClient() != null) {
+            generator.writeStringField(CLIENT, event.getClient());
+        }
+        generator.writeStringField(LoggingAttribute.HTTP_URI.getName(), event.getUri());
+    }
+
+    /**
+     * The headers come already filtered by the {@code HeaderPolicy} of the side that built the event.
+     */
+    private static void writeHeaders(JsonGenerator generator, Map<String, ? extends Collection<String>> headers)
+            throws IOException {
+        generator.writeObjectFieldStart(LoggingAttribute.HTTP_HEADERS.getName());
+        for (Map.Entry<String, ? extends Collection<String>> header : headers.entrySet()) {
+            generator.writeArrayFieldStart(header.getKey());
+            for (String value : header.getValue()) {
+                generator.writeString(value);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeParts(JsonGenerator generator, List<HttpLogEvent.Part> parts) throws IOException {
+        generator.writeArrayFieldStart(PARTS);
+        for (HttpLogEvent.Part part : parts) {
+            generator.writeStartObject();
+            generator.writeStringField("name", part.getName());
+            if (part.getFilename() != null) {
+                generator.writeStringField("filename", part.getFilename());
+            }
+            if (part.getContentType() != null) {
+                generator.writeStringField("contentType", part.getContentType());
+            }
+            generator.writeNumberField("size", part.getSize());
+            if (part.getValue() != null) {
+                generator.writeStringField("value", jsonRedactor.redactField(part.getName(), part.getValue()));
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private void writePayload(JsonGenerator generator, HttpLogEvent event) throws IOException {
+        byte[] captured = event.getPayload();
+        long bodyLength = event.getPayloadLength();
+        int maxPayload = event.getMaxPayload() != null ? event.getMaxPayload() : this.maxPayload;
+        String contentType = event.getContentType();
+        ContentTypeClassifier.Category category = ContentTypeClassifier.DEFAULT.classify(contentType);
+        if (!category.isCaptured()) {
+            // counted but not captured, so there is nothing to decode
+            if (bodyLength > 0 || captured != null && captured.length > 0) {
+                generator.writeStringField(LoggingAttribute.HTTP_PAYLOAD.getName(),
+                        "Content-Type is " + contentType);
+            }
+            return;
+        }
+        if (captured == null || isBlank(captured)) {
+            if (captured == null && bodyLength > maxPayload) {
+                // the body was known to be too large before anything was captured, e.g. from Content-Length
+                loggingMetrics.recordTruncation();
+                generator.writeStringField(LoggingAttribute.HTTP_PAYLOAD.getName(), "Payload length=" + bodyLength
+                        + " but maxPayload=" + maxPayload + ". Please, increase logging.maxPayload.");
+            }
+            return;
+        }
+        long payloadLength = Math.max(bodyLength, captured.length);
+        generator.writeFieldName(LoggingAttribute.HTTP_PAYLOAD.getName());
+        if (payloadLength > maxPayload) {
+            loggingMetrics.recordTruncation();
+            // only the kept prefix is decoded, cut where no multi-byte char is split
+            int length = codePointBoundary(captured, Math.min(maxPayload, captured.length));
+            String payload = isRedacted(category, captured)
+                    ? jsonRedactor.redactPrefix(jsonFactory, captured, length)
+                    : new String(captured, 0, length, StandardCharsets.UTF_8);
+            generator.writeString("Payload length=" + payloadLength + " but maxPayload=" + maxPayload
+                    + ". Please, increase logging.maxPayload. Truncated content: " + payload);
+        } else {
+            writeByContentType(generator, contentType, category, captured);
+        }
+    }
+
+    private void writeByContentType(JsonGenerator generator, String contentType,
+                                    ContentTypeClassifier.Category category, byte[] payload) throws IOException {
+        if (StringUtils.isBlank(contentType)) {
+            generator.writeString("Content-Type is not specified: " + decodeText(category, payload));
+        } else if (category == ContentTypeClassifier.Category.JSON) {
+            writeJson(generator, contentType, payload);
+        } else {
+            generator.writeString("Content-Type is " + contentType + ". Content: " + decodeText(category, payload));
+        }
+    }
+
+    private String decodeText(ContentTypeClassifier.Category category, byte[] payload) throws IOException {
+        return isRedacted(category, payload) ? jsonRedactor.redactPrefix(jsonFactory, payload) : decode(payload);
+    }
+
+    /**
+     * Many clients send JSON with no Content-Type or as text/plain, so a text body that opens like JSON is
+     * redacted as well.
+     */
+    private boolean isRedacted(ContentTypeClassifier.Category category, byte[] payload) {
+        return jsonRedactor.isEnabled()
+                && (category == ContentTypeClassifier.Category.JSON || startsLikeJson(payload));
+    }
+
+    private void writeJson(JsonGenerator generator, String contentType, byte[] payload) throws IOException {
+        if (!isSingleJsonValue(payload)) {
+            loggingMetrics.recordJsonParseFailure();
+            String content = jsonRedactor.isEnabled()
+                    ? jsonRedactor.redactPrefix(jsonFactory, payload) : decode(payload);
+            generator.writeString("Content-Type is " + contentType + ". Content: " + content);
+        } else if (jsonRedactor.isEnabled()) {
+            try (JsonParser parser = jsonFactory.createParser(payload)) {
+                jsonRedactor.copy(parser, generator);
+            }
+        } else if (containsLineBreak(payload)) {
+            // raw bytes would split the log line, so the value is re-encoded token by token instead
+            try (JsonParser parser = jsonFactory.createParser(payload)) {
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            }
+        } else {
+            // a valid single value with no line break goes in as is
+            generator.writeRawValue(decode(payload));
+        }
+    }
+
+    private boolean isSingleJsonValue(byte[] payload) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Drops a UTF-8 sequence left incomplete at the end of {@code payload[0, length)}. The capture itself
+     * stops at the limit, so the cut char is usually the last one kept rather than the one after it.
+     */
+    private static int codePointBoundary(byte[] payload, int length) {
+        int lead = length - 1;
+        // a sequence is at most 4 bytes long, so at most 3 continuation bytes are stepped over
+        while (lead > 0 && length - lead < 4 && (payload[lead] & 0xC0) == 0x80) {
+            lead--;
+        }
+        if (lead < 0) {
+            return length;
+        }
+        int first = payload[lead] & 0xFF;
+        int sequenceLength = first >= 0xF0 ? 4 : first >= 0xE0 ? 3 : first >= 0xC0 ? 2 : 1;
+        return lead + sequenceLength > length ? lead : length;
+    }
+
+    private static boolean startsLikeJson(byte[] payload) {
+        for (byte b : payload) {
+            if (!Character.isWhitespace(b)) {
+                return b == '{' || b == '[';
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsLineBreak(byte[] payload) {
+        for (byte b : payload) {
+            if (b == '\n' || b == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBlank(byte[] payload) {
+        for (byte b : payload) {
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
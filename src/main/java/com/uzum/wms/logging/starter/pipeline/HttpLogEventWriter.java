@@ -0,0 +1,28 @@
+package com.uzum.wms.logging.starter.pipeline;
+
+import com.uzum.wms.logging.starter.filters.RequestResponseFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serializes events and writes them to the log on the calling thread.
+ */
+public class HttpLogEventWriter implements HttpLogEventPublisher {
+    // keeps the logger name services already configure in logback.xml
+    private static final Logger log = LoggerFactory.getLogger(RequestResponseFilter.class);
+
+    private final HttpLogEventSerializer serializer;
+
+    public HttpLogEventWriter(HttpLogEventSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    @Override
+    public void publish(HttpLogEvent event) {
+        try {
+            log.debug(serializer.serialize(event));
+        } catch (Exception e) {
+            log.error("Unable to build {} message. Error is: ", event.getType().name().toLowerCase(), e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.uzum.wms.logging.starter.policy;
+
+import com.uzum.wms.logging.starter.cache.BoundedCache;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Set;
+
+/**
+ * Sorts a Content-Type header into what the starter does with the body. A header is parsed once and looked up
+ * through a bounded cache afterwards, so the check is cheap enough to run before the body is captured.
+ */
+public class ContentTypeClassifier {
+    public static final ContentTypeClassifier DEFAULT = new ContentTypeClassifier();
+
+    private static final int MAX_CACHED_TYPES = 256;
+    private static final Set<String> BINARY_TYPES = Set.of("image", "audio", "video", "font", "multipart");
+    private static final Set<String> BINARY_APPLICATION_SUBTYPES = Set.of("pdf", "octet-stream", "zip", "gzip",
+            "cbor", "x-protobuf", "protobuf", "grpc", "x-www-form-urlencoded");
+    private static final Set<String> STREAMING_SUBTYPES = Set.of("event-stream", "x-ndjson", "stream+json");
+
+    private final BoundedCache<String, Category> categories = new BoundedCache<>(MAX_CACHED_TYPES);
+
+    public Category classify(String contentType) {
+        if (StringUtils.isBlank(contentType)) {
+            return Category.TEXT;
+        }
+        return categories.get(contentType, ContentTypeClassifier::parse);
+    }
+
+    private static Category parse(String contentType) {
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return Category.TEXT;
+        }
+        String type = mediaType.getType();
+        String subtype = mediaType.getSubtype();
+        if (STREAMING_SUBTYPES.contains(subtype)) {
+            return Category.STREAMING;
+        }
+        if ("json".equals(subtype) || "json".equals(mediaType.getSubtypeSuffix())) {
+            return Category.JSON;
+        }
+        if (BINARY_TYPES.contains(type)) {
+            return Category.BINARY;
+        }
+        if ("application".equals(type) && (BINARY_APPLICATION_SUBTYPES.contains(subtype)
+                || subtype.startsWith("vnd.") && mediaType.getSubtypeSuffix() == null)) {
+            return Category.BINARY;
+        }
+        return Category.TEXT;
+    }
+
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public enum Category {
+        JSON(true),
+        TEXT(true),
+        /**
+         * Logged as the Content-Type only, the body is counted but never captured or decoded.
+         */
+        BINARY(false),
+        /**
+         * Event streams and other bodies written piece by piece for as long as the connection lives.
+         */
+        STREAMING(false);
+
+        private final boolean captured;
+    }
+}
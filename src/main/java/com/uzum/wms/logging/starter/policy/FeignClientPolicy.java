@@ -0,0 +1,31 @@
+package com.uzum.wms.logging.starter.policy;
+
+import lombok.Value;
+
+/**
+ * How calls of one Feign client method are logged.
+ */
+@Value
+public class FeignClientPolicy {
+    private static final int SAMPLE_BITS = 24;
+
+    boolean enabled;
+    int requestMaxPayload;
+    int responseMaxPayload;
+    boolean headers;
+    double sampleRate;
+
+    /**
+     * Decides from the identity of the request, so its request and response lines agree without keeping state.
+     */
+    public boolean isBodySampled(Object request) {
+        if (sampleRate >= 1.0) {
+            return true;
+        }
+        if (sampleRate <= 0.0) {
+            return false;
+        }
+        int hash = System.identityHashCode(request) * 0x9E3779B9;
+        return (hash >>> (Integer.SIZE - SAMPLE_BITS)) < sampleRate * (1 << SAMPLE_BITS);
+    }
+}
@@ -0,0 +1,66 @@
+package com.uzum.wms.logging.starter.policy;
+
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Picks the {@link FeignClientPolicy} of a Feign configKey such as {@code CatalogClient#export(long)}.
+ * The configured entries are resolved once into an immutable table, and the policy of a configKey is cached:
+ * configKeys come from client interfaces, so there is one per method and the cache needs no bound.
+ */
+public class FeignClientPolicyResolver {
+    private final FeignClientPolicy defaultPolicy;
+    private final Map<String, FeignClientPolicy> policies;
+    private final ConcurrentMap<String, FeignClientPolicy> byConfigKey = new ConcurrentHashMap<>();
+
+    public FeignClientPolicyResolver(LoggingProperties.Feign feign, int maxPayload) {
+        this.defaultPolicy = new FeignClientPolicy(true, maxPayload, maxPayload, true, 1.0);
+        Map<String, LoggingProperties.FeignClient> clients = feign.getClients();
+        Map<String, FeignClientPolicy> resolved = new HashMap<>();
+        clients.forEach((key, client) -> {
+            int hash = key.indexOf('#');
+            FeignClientPolicy parent = hash < 0 ? defaultPolicy
+                    : merge(defaultPolicy, clients.get(key.substring(0, hash)));
+            resolved.put(key, merge(parent, client));
+        });
+        this.policies = Map.copyOf(resolved);
+    }
+
+    public FeignClientPolicy resolve(String configKey) {
+        if (policies.isEmpty()) {
+            return defaultPolicy;
+        }
+        FeignClientPolicy policy = byConfigKey.get(configKey);
+        if (policy == null) {
+            policy = byConfigKey.computeIfAbsent(configKey, this::lookup);
+        }
+        return policy;
+    }
+
+    private FeignClientPolicy lookup(String configKey) {
+        int hash = configKey.indexOf('#');
+        if (hash < 0) {
+            return policies.getOrDefault(configKey, defaultPolicy);
+        }
+        int paren = configKey.indexOf('(', hash);
+        FeignClientPolicy policy = policies.get(configKey.substring(0, paren < 0 ? configKey.length() : paren));
+        return policy != null ? policy : policies.getOrDefault(configKey.substring(0, hash), defaultPolicy);
+    }
+
+    private static FeignClientPolicy merge(FeignClientPolicy parent, LoggingProperties.FeignClient client) {
+        if (client == null) {
+            return parent;
+        }
+        return new FeignClientPolicy(
+                client.getEnabled() != null ? client.getEnabled() : parent.isEnabled(),
+                client.getRequestMaxPayload() != null ? client.getRequestMaxPayload() : parent.getRequestMaxPayload(),
+                client.getResponseMaxPayload() != null ? client.getResponseMaxPayload()
+                        : parent.getResponseMaxPayload(),
+                client.getHeaders() != null ? client.getHeaders() : parent.isHeaders(),
+                client.getSampleRate() != null ? client.getSampleRate() : parent.getSampleRate());
+    }
+}
@@ -0,0 +1,77 @@
+package com.uzum.wms.logging.starter.policy;
+
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Decides per header name whether it is logged as is, masked or dropped. The names are compiled once into a
+ * case-insensitive map, so a lookup compares characters in place instead of lowercasing the name.
+ */
+public class HeaderPolicy {
+    private static final String MASK = "****";
+    private static final List<String> DEFAULT_DENY = List.of(HttpHeaders.AUTHORIZATION);
+
+    public static final HeaderPolicy DEFAULT = compile(new LoggingProperties.Headers());
+
+    private final Map<String, Action> actions;
+    private final Action unlisted;
+    private final int maskKeepLast;
+
+    private HeaderPolicy(Map<String, Action> actions, Action unlisted, int maskKeepLast) {
+        this.actions = actions;
+        this.unlisted = unlisted;
+        this.maskKeepLast = maskKeepLast;
+    }
+
+    public static HeaderPolicy compile(LoggingProperties.Headers headers) {
+        Map<String, Action> actions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.getAllow().forEach(name -> actions.put(name, Action.LOG));
+        headers.getMask().forEach(name -> actions.put(name, Action.MASK));
+        // a configured deny list replaces the default one, so credentials are dropped here unless explicitly let in
+        DEFAULT_DENY.forEach(name -> actions.putIfAbsent(name, Action.DROP));
+        headers.getDeny().forEach(name -> actions.put(name, Action.DROP));
+        return new HeaderPolicy(actions, headers.getAllow().isEmpty() ? Action.LOG : Action.DROP,
+                Math.max(headers.getMaskKeepLast(), 0));
+    }
+
+    public Action resolve(String name) {
+        Action action = actions.get(name);
+        return action != null ? action : unlisted;
+    }
+
+    /**
+     * Copies only the headers that are logged, with masked values already replaced, so the headers of a request
+     * or a response are copied once on their way to the log line.
+     */
+    public HttpHeaders filter(Iterator<String> names, Function<String, ? extends Iterator<String>> values) {
+        HttpHeaders headers = new HttpHeaders();
+        while (names.hasNext()) {
+            String name = names.next();
+            Action action = resolve(name);
+            if (action != Action.DROP) {
+                values.apply(name).forEachRemaining(value -> headers.add(name, action == Action.MASK
+                        ? mask(value) : value));
+            }
+        }
+        return headers;
+    }
+
+    public String mask(String value) {
+        if (value == null || value.length() <= maskKeepLast) {
+            return MASK;
+        }
+        return MASK + value.substring(value.length() - maskKeepLast);
+    }
+
+    public enum Action {
+        LOG,
+        MASK,
+        DROP,
+    }
+}
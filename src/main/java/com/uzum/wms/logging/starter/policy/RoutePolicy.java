@@ -0,0 +1,16 @@
+package com.uzum.wms.logging.starter.policy;
+
+import com.uzum.wms.logging.starter.sampling.BodySampler;
+import lombok.Value;
+
+/**
+ * How requests of one route are logged.
+ */
+@Value
+public class RoutePolicy {
+    boolean bodyCapture;
+    int requestMaxPayload;
+    int responseMaxPayload;
+    boolean headers;
+    BodySampler bodySampler;
+}
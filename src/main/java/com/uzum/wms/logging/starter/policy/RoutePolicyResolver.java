@@ -0,0 +1,61 @@
+package com.uzum.wms.logging.starter.policy;
+
+import com.uzum.wms.logging.starter.cache.BoundedCache;
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import com.uzum.wms.logging.starter.matcher.PathPatternMatcher;
+import com.uzum.wms.logging.starter.sampling.BodySampler;
+import org.springframework.http.HttpMethod;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Picks the {@link RoutePolicy} of a request. Routes are compiled once, and the policy of a method and path
+ * is looked up through a bounded cache per standard method, so hot routes cost two hash lookups. Any other
+ * method is matched every time, so made-up methods cannot crowd the cache.
+ */
+public class RoutePolicyResolver {
+    private static final int MAX_CACHED_PATHS = 1024;
+
+    private final RoutePolicy defaultPolicy;
+    private final List<CompiledRoute> routes;
+    private final Map<String, BoundedCache<String, RoutePolicy>> policies = Arrays.stream(HttpMethod.values())
+            .collect(Collectors.toUnmodifiableMap(HttpMethod::name, ignored -> new BoundedCache<>(MAX_CACHED_PATHS)));
+
+    public RoutePolicyResolver(LoggingProperties loggingProperties, int maxPayload) {
+        LoggingProperties.Sampling defaultSampling = loggingProperties.getSampling();
+        this.defaultPolicy = new RoutePolicy(true, maxPayload, maxPayload, true, new BodySampler(defaultSampling));
+        this.routes = loggingProperties.getRoutes().stream()
+                .map(route -> new CompiledRoute(PathPatternMatcher.compile(List.of(route.getPath()), 0),
+                        route.getMethods().stream().map(String::toUpperCase).collect(Collectors.toUnmodifiableSet()),
+                        new RoutePolicy(route.isBodyCapture(),
+                                route.getRequestMaxPayload() != null ? route.getRequestMaxPayload() : maxPayload,
+                                route.getResponseMaxPayload() != null ? route.getResponseMaxPayload() : maxPayload,
+                                route.isHeaders(),
+                                new BodySampler(route.getSampling() != null ? route.getSampling() : defaultSampling))))
+                .toList();
+    }
+
+    public RoutePolicy resolve(String method, String path) {
+        if (routes.isEmpty() || path == null) {
+            return defaultPolicy;
+        }
+        BoundedCache<String, RoutePolicy> byPath = policies.get(method);
+        return byPath != null ? byPath.get(path, ignored -> match(method, path)) : match(method, path);
+    }
+
+    private RoutePolicy match(String method, String path) {
+        for (CompiledRoute route : routes) {
+            if ((route.methods().isEmpty() || route.methods().contains(method)) && route.matcher().matches(path)) {
+                return route.policy();
+            }
+        }
+        return defaultPolicy;
+    }
+
+    private record CompiledRoute(PathPatternMatcher matcher, Set<String> methods, RoutePolicy policy) {
+    }
+}
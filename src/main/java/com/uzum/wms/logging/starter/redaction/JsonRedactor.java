@@ -0,0 +1,143 @@
+package com.uzum.wms.logging.starter.redaction;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copies a JSON value token by token from a {@link JsonParser} to a {@link JsonGenerator}, replacing the values of
+ * the configured fields. A plain name ({@code phone}) matches the field at any depth, a dotted path
+ * ({@code customer.passport}) matches from the root, array elements take the path of their array. The paths are
+ * compiled once into a trie, so a field costs one hash lookup and no tree is built.
+ */
+public class JsonRedactor {
+    public static final JsonRedactor NONE = compile(List.of(), "");
+
+    private final Set<String> anywhere;
+    private final Node root;
+    private final String replacement;
+
+    private JsonRedactor(Set<String> anywhere, Node root, String replacement) {
+        this.anywhere = anywhere;
+        this.root = root;
+        this.replacement = replacement;
+    }
+
+    public static JsonRedactor compile(LoggingProperties.Redaction redaction) {
+        return compile(redaction.getFields(), redaction.getReplacement());
+    }
+
+    public static JsonRedactor compile(Collection<String> fields, String replacement) {
+        Set<String> anywhere = new HashSet<>();
+        Node root = new Node();
+        for (String field : fields) {
+            if (field.indexOf('.') < 0) {
+                anywhere.add(field);
+                continue;
+            }
+            Node node = root;
+            for (String name : field.split("\\.")) {
+                node = node.children.computeIfAbsent(name, ignored -> new Node());
+            }
+            node.redacted = true;
+        }
+        return new JsonRedactor(Set.copyOf(anywhere), root, replacement);
+    }
+
+    public boolean isEnabled() {
+        return !anywhere.isEmpty() || !root.children.isEmpty();
+    }
+
+    /**
+     * Copies the next value of the parser. Malformed or cut input fails with the parser's exception, after
+     * everything before it has been written.
+     */
+    public void copy(JsonParser parser, JsonGenerator generator) throws IOException {
+        // the trie node of every open container, null once no configured path continues below it
+        List<Node> containers = new ArrayList<>();
+        Node fieldNode = root;
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            switch (token) {
+                case FIELD_NAME -> {
+                    String name = parser.currentName();
+                    Node container = containers.get(containers.size() - 1);
+                    fieldNode = container != null ? container.children.get(name) : null;
+                    generator.writeFieldName(name);
+                    if (anywhere.contains(name) || fieldNode != null && fieldNode.redacted) {
+                        parser.nextToken();
+                        parser.skipChildren();
+                        generator.writeString(replacement);
+                    }
+                }
+                case START_OBJECT, START_ARRAY -> {
+                    // array elements keep the node of the array, values of an object get the node of their field
+                    containers.add(containers.isEmpty() ? root
+                            : parser.getParsingContext().getParent().inArray() ? containers.get(containers.size() - 1)
+                            : fieldNode);
+                    generator.copyCurrentEvent(parser);
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    containers.remove(containers.size() - 1);
+                    generator.copyCurrentEvent(parser);
+                }
+                default -> generator.copyCurrentEvent(parser);
+            }
+            if (containers.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Redacts as much of {@code payload} as parses, for bodies that are cut at the capture limit or are not
+     * valid JSON and are logged as text.
+     */
+    public String redactPrefix(JsonFactory jsonFactory, byte[] payload) throws IOException {
+        return redactPrefix(jsonFactory, payload, payload.length);
+    }
+
+    public String redactPrefix(JsonFactory jsonFactory, byte[] payload, int length) throws IOException {
+        StringWriter writer = new StringWriter(length);
+        try (JsonParser parser = jsonFactory.createParser(payload, 0, length);
+             JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            // a cut body stays visibly cut instead of being closed with made-up brackets
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            try {
+                while (!parser.isClosed()) {
+                    copy(parser, generator);
+                }
+            } catch (JsonProcessingException e) {
+                // stop at the first byte that does not parse
+            }
+            generator.flush();
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Form fields are flat, so a field matches a name listed on its own or as a one-segment path.
+     */
+    public String redactField(String name, String value) {
+        Node node = root.children.get(name);
+        return anywhere.contains(name) || node != null && node.redacted ? replacement : value;
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean redacted;
+    }
+}
@@ -0,0 +1,47 @@
+package com.uzum.wms.logging.starter.sampling;
+
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides before the body is read whether it should be captured, so unsampled requests cost nothing.
+ * Every route gets its own sampler, so {@code RATE_LIMIT} budgets are per route rather than per raw path.
+ */
+public class BodySampler {
+    private final LoggingProperties.Sampling properties;
+    private final RateLimiter rateLimiter;
+
+    public BodySampler(LoggingProperties.Sampling properties) {
+        this.properties = properties;
+        this.rateLimiter = new RateLimiter(properties.getPermitsPerSecond(), System.nanoTime());
+    }
+
+    public SamplingDecision sample() {
+        boolean sampled = switch (properties.getPolicy()) {
+            case ALWAYS -> true;
+            case PROBABILITY -> ThreadLocalRandom.current().nextDouble() < properties.getProbability();
+            case RATE_LIMIT -> rateLimiter.tryAcquire(System.nanoTime());
+            case TAIL -> false;
+        };
+        if (sampled) {
+            return SamplingDecision.CAPTURE;
+        }
+        return isKeptOnError() || properties.getSlowThreshold() != null
+                ? SamplingDecision.DEFER : SamplingDecision.SKIP;
+    }
+
+    /**
+     * Whether a deferred request turned out worth logging with its bodies.
+     */
+    public boolean isKept(int status, boolean failed, long durationMillis) {
+        Duration slowThreshold = properties.getSlowThreshold();
+        return isKeptOnError() && (failed || status >= 400)
+                || slowThreshold != null && durationMillis >= slowThreshold.toMillis();
+    }
+
+    private boolean isKeptOnError() {
+        return properties.isAlwaysOnError() || properties.getPolicy() == LoggingProperties.SamplingPolicy.TAIL;
+    }
+}
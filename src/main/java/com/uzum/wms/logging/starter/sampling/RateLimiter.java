@@ -0,0 +1,32 @@
+package com.uzum.wms.logging.starter.sampling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket: refills {@code permitsPerSecond} tokens a second and holds at most one second of them.
+ */
+class RateLimiter {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong nextFreeSlot;
+
+    RateLimiter(int permitsPerSecond, long nowNanos) {
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(permitsPerSecond, 1);
+        this.burstNanos = intervalNanos * Math.max(permitsPerSecond, 1);
+        this.nextFreeSlot = new AtomicLong(nowNanos);
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long slot = nextFreeSlot.get();
+            long next = Math.max(slot, nowNanos) + intervalNanos;
+            if (next - nowNanos > burstNanos) {
+                return false;
+            }
+            if (nextFreeSlot.compareAndSet(slot, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.uzum.wms.logging.starter.sampling;
+
+public enum SamplingDecision {
+    /**
+     * Capture and log the bodies.
+     */
+    CAPTURE,
+    /**
+     * Do not capture the bodies at all, log only the request and response lines.
+     */
+    SKIP,
+    /**
+     * Keep the bounded body prefix, but log it only if the request fails or turns out slow.
+     */
+    DEFER,
+}
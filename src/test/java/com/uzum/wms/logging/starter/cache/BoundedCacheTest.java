@@ -0,0 +1,69 @@
+package com.uzum.wms.logging.starter.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BoundedCacheTest {
+
+    @Test
+    void whenKeySeenAgain_thenLoadOnce() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        //test
+        cache.get("a", key -> loads.incrementAndGet());
+        Integer value = cache.get("a", key -> loads.incrementAndGet());
+
+        //check
+        assertEquals(1, value);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void whenCacheFull_thenEvictKeyNotHitSinceLastSweep() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(2);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("a", key -> loads.incrementAndGet());
+        cache.get("b", key -> loads.incrementAndGet());
+        cache.get("a", key -> loads.incrementAndGet());
+
+        //test
+        cache.get("c", key -> loads.incrementAndGet());
+        cache.get("a", key -> loads.incrementAndGet());
+        cache.get("b", key -> loads.incrementAndGet());
+
+        //check
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void whenPathsWithIdsFillCache_thenKeepHotPath() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(4);
+        AtomicInteger hotLoads = new AtomicInteger();
+
+        //test
+        for (int id = 0; id < 1000; id++) {
+            cache.get("/orders/" + id, key -> 0);
+            cache.get("/health", key -> hotLoads.incrementAndGet());
+        }
+
+        //check
+        assertEquals(1, hotLoads.get());
+    }
+
+    @Test
+    void whenMaxSizeZero_thenLoadEveryTime() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(0);
+        AtomicInteger loads = new AtomicInteger();
+
+        //test
+        cache.get("a", key -> loads.incrementAndGet());
+        cache.get("a", key -> loads.incrementAndGet());
+
+        //check
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,69 @@
+package com.uzum.wms.logging.starter.config;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedBodyHttpServletRequestTest {
+    private static final String BODY = "{\"name\":\"Ўзбекистон\"}";
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+
+    @Test
+    @SneakyThrows
+    void whenEncodingSet_thenReaderDecodesWithIt() {
+        Charset windows1251 = Charset.forName("windows-1251");
+        request.setContent(BODY.getBytes(windows1251));
+        request.setCharacterEncoding(windows1251.name());
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request);
+
+        //check
+        assertEquals(BODY, cachedRequest.getReader().readLine());
+        assertEquals(BODY, cachedRequest.getReader().readLine());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenEncodingNotSet_thenReaderDecodesUtf8() {
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request);
+
+        //check
+        assertEquals(BODY, cachedRequest.getReader().readLine());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenEncodingUnknown_thenThrow() {
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        request.setCharacterEncoding("no-such-charset");
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request);
+
+        //check
+        assertThrows(UnsupportedEncodingException.class, cachedRequest::getReader);
+    }
+
+    @Test
+    @SneakyThrows
+    void bodyAsByteBufferTest() {
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request);
+
+        //test
+        ByteBuffer body = cachedRequest.getBodyAsByteBuffer();
+
+        //check
+        assertTrue(body.isReadOnly());
+        assertEquals(BODY, StandardCharsets.UTF_8.decode(body).toString());
+        assertEquals(BODY.getBytes(StandardCharsets.UTF_8).length, cachedRequest.getBodyAsByteBuffer().remaining());
+    }
+}
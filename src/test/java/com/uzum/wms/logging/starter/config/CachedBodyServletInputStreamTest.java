@@ -0,0 +1,228 @@
+package com.uzum.wms.logging.starter.config;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedBodyServletInputStreamTest {
+    private static final byte[] BODY = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+    private final List<String> events = new ArrayList<>();
+
+    private final Deque<Runnable> dispatched = new ArrayDeque<>();
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @BeforeEach
+    void init() {
+        request.setAsyncStarted(true);
+        // the container runs dispatched callbacks later on its own threads
+        request.setAsyncContext(new MockAsyncContext(request, null) {
+            @Override
+            public void start(Runnable runnable) {
+                dispatched.add(runnable);
+            }
+        });
+    }
+
+    @Test
+    void bulkReadTest() throws IOException {
+        CachedBodyServletInputStream inputStream = new CachedBodyServletInputStream(BODY, request);
+        byte[] buffer = new byte[4];
+
+        //test
+        assertEquals('0', inputStream.read());
+        assertEquals(4, inputStream.read(buffer, 0, 4));
+        assertEquals(5, inputStream.skip(5));
+        byte[] next = inputStream.readNBytes(3);
+        assertEquals(7, inputStream.available());
+        ByteArrayOutputStream rest = new ByteArrayOutputStream();
+        long transferred = inputStream.transferTo(rest);
+
+        //check
+        assertEquals("1234", new String(buffer, StandardCharsets.UTF_8));
+        assertEquals("abc", new String(next, StandardCharsets.UTF_8));
+        assertEquals(7, transferred);
+        assertEquals("defghij", rest.toString(StandardCharsets.UTF_8));
+        assertEquals(-1, inputStream.read(buffer, 0, 4));
+        assertEquals(0, inputStream.readAllBytes().length);
+        assertEquals(0, inputStream.skip(1));
+        assertTrue(inputStream.isFinished());
+    }
+
+    @Test
+    void readAllBytesTest() {
+        CachedBodyServletInputStream inputStream = new CachedBodyServletInputStream(BODY, request);
+        inputStream.skip(10);
+
+        //check
+        assertEquals("abcdefghij", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(-1, inputStream.read());
+    }
+
+    @Test
+    void whenReadListenerSet_thenReadBodyAndNotifyAllDataRead() {
+        ServletInputStream inputStream = new CachedBodyServletInputStream(BODY, request);
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+
+        //test
+        inputStream.setReadListener(new RecordingReadListener(inputStream, read));
+        assertTrue(events.isEmpty());
+        runDispatched();
+
+        //check
+        assertArrayEquals(BODY, read.toByteArray());
+        assertEquals(List.of("onDataAvailable", "onAllDataRead"), events);
+    }
+
+    @Test
+    void whenBodyEmpty_thenOnlyNotifyAllDataRead() {
+        ServletInputStream inputStream = new CachedBodyServletInputStream(new byte[0], request);
+
+        //test
+        inputStream.setReadListener(new RecordingReadListener(inputStream, new ByteArrayOutputStream()));
+        runDispatched();
+
+        //check
+        assertEquals(List.of("onAllDataRead"), events);
+    }
+
+    @Test
+    void whenListenerReadsPartPerCallback_thenNotifyAllDataReadAtEnd() throws IOException {
+        ServletInputStream inputStream = new CachedBodyServletInputStream(BODY, request);
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        inputStream.setReadListener(new RecordingReadListener(inputStream, read) {
+            @Override
+            public void onDataAvailable() throws IOException {
+                read.write(inputStream.readNBytes(5));
+                events.add("onDataAvailable");
+            }
+        });
+        runDispatched();
+
+        //test
+        read.writeBytes(inputStream.readNBytes(BODY.length));
+        runDispatched();
+
+        //check
+        assertArrayEquals(BODY, read.toByteArray());
+        assertEquals(List.of("onDataAvailable", "onAllDataRead"), events);
+    }
+
+    @Test
+    void whenRequestNotAsync_thenThrow() {
+        ServletInputStream inputStream = new CachedBodyServletInputStream(BODY, new MockHttpServletRequest());
+
+        //check
+        assertThrows(IllegalStateException.class, () ->
+                inputStream.setReadListener(new RecordingReadListener(inputStream, new ByteArrayOutputStream())));
+    }
+
+    @Test
+    void whenListenerFails_thenNotifyError() {
+        ServletInputStream inputStream = new CachedBodyServletInputStream(BODY, request);
+
+        //test
+        inputStream.setReadListener(new RecordingReadListener(inputStream, new ByteArrayOutputStream()) {
+            @Override
+            public void onDataAvailable() throws IOException {
+                throw new IOException("broken");
+            }
+        });
+        runDispatched();
+
+        //check
+        assertEquals(List.of("onError"), events);
+    }
+
+    @Test
+    void whenListenerSetTwice_thenThrow() {
+        ServletInputStream inputStream = new CachedBodyServletInputStream(BODY, request);
+        inputStream.setReadListener(new RecordingReadListener(inputStream, new ByteArrayOutputStream()));
+
+        //check
+        assertThrows(IllegalStateException.class, () ->
+                inputStream.setReadListener(new RecordingReadListener(inputStream, new ByteArrayOutputStream())));
+        assertThrows(NullPointerException.class, () ->
+                new CachedBodyServletInputStream(BODY, request).setReadListener(null));
+    }
+
+    @Test
+    void whenTeeOverNonBlockingStream_thenCaptureAndFinishOnAllDataRead() {
+        PayloadCapture capture = new PayloadCapture(5);
+        ServletInputStream inputStream = new TeeCaptureServletInputStream(new CachedBodyServletInputStream(BODY, request),
+                capture, () -> events.add("finished"));
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+
+        //test
+        inputStream.setReadListener(new RecordingReadListener(inputStream, read) {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[8];
+                // reads only what is ready and never hits the end of stream explicitly
+                while (inputStream.isReady() && !inputStream.isFinished()) {
+                    int count = inputStream.read(buffer, 0, Math.min(buffer.length, inputStream.available()));
+                    read.write(buffer, 0, count);
+                }
+                events.add("onDataAvailable");
+            }
+        });
+        runDispatched();
+
+        //check
+        assertArrayEquals(BODY, read.toByteArray());
+        assertEquals(BODY.length, capture.getTotalLength());
+        assertEquals("finished", events.get(events.indexOf("onAllDataRead") - 1));
+    }
+
+    private void runDispatched() {
+        while (!dispatched.isEmpty()) {
+            dispatched.poll().run();
+        }
+    }
+
+    private class RecordingReadListener implements ReadListener {
+        private final ServletInputStream inputStream;
+        private final ByteArrayOutputStream read;
+
+        RecordingReadListener(ServletInputStream inputStream, ByteArrayOutputStream read) {
+            this.inputStream = inputStream;
+            this.read = read;
+        }
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            int b;
+            while (inputStream.isReady() && (b = inputStream.read()) != -1) {
+                read.write(b);
+            }
+            events.add("onDataAvailable");
+        }
+
+        @Override
+        public void onAllDataRead() {
+            events.add("onAllDataRead");
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            events.add("onError");
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.uzum.wms.logging.starter.config;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.logging.ConditionEvaluationReportLoggingListener;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.support.GenericApplicationContext;
 import com.uzum.wms.logging.starter.feignclient.FeignClientCustomLoggerConfiguration;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -10,8 +11,11 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 
 class FeignClientCustomLoggerConfigurationTest {
 
+    private final LoggingProperties loggingProperties = new LoggingProperties();
+
     private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
             .withInitializer(new ConditionEvaluationReportLoggingListener())
+            .withParent(parentContext())
             .withUserConfiguration(FeignClientCustomLoggerConfiguration.class);
 
     @Test
@@ -23,4 +27,20 @@ class FeignClientCustomLoggerConfigurationTest {
                 ));
     }
 
+    @Test
+    void shouldUseParentLoggingProperties() {
+        contextRunner
+                .run(context -> assertAll(
+                        () -> assertThat(context.getBeanNamesForType(LoggingProperties.class)).isEmpty(),
+                        () -> assertThat(context.getBean(LoggingProperties.class)).isSameAs(loggingProperties)
+                ));
+    }
+
+    private GenericApplicationContext parentContext() {
+        GenericApplicationContext parent = new GenericApplicationContext();
+        parent.registerBean(LoggingProperties.class, () -> loggingProperties);
+        parent.refresh();
+        return parent;
+    }
+
 }
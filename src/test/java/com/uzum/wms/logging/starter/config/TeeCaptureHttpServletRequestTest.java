@@ -0,0 +1,98 @@
+package com.uzum.wms.logging.starter.config;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TeeCaptureHttpServletRequestTest {
+    private static final byte[] BODY = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload");
+
+    private final AtomicInteger consumedCount = new AtomicInteger();
+
+    @Test
+    @SneakyThrows
+    void whenBodyRead_thenPassThroughAndKeepPrefix() {
+        request.setContent(BODY);
+        TeeCaptureHttpServletRequest teeRequest =
+                new TeeCaptureHttpServletRequest(request, 5, captured -> consumedCount.incrementAndGet());
+
+        //test
+        byte[] read = StreamUtils.copyToByteArray(teeRequest.getInputStream());
+
+        //check
+        assertArrayEquals(BODY, read);
+        assertEquals(1, consumedCount.get());
+        assertEquals(BODY.length, teeRequest.getBodyLength());
+        assertTrue(teeRequest.getCapture().isTruncated());
+        assertEquals("01234", new String(teeRequest.getCapture().getContentInputStream().readAllBytes(),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SneakyThrows
+    void whenBodyNotRead_thenDrainOnlyCaptureWindow() {
+        request.setContent(BODY);
+        TeeCaptureHttpServletRequest teeRequest =
+                new TeeCaptureHttpServletRequest(request, 5, captured -> consumedCount.incrementAndGet());
+
+        //test
+        teeRequest.finishCapture(true);
+        teeRequest.finishCapture(true);
+
+        //check
+        assertEquals(1, consumedCount.get());
+        assertEquals(5, teeRequest.getCapture().getTotalLength());
+        assertEquals(BODY.length, teeRequest.getBodyLength());
+        assertFalse(teeRequest.getCapture().isTruncated());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenBodyWithoutLengthHeaders_thenDrainItFromStream() {
+        // an HTTP/2 request may carry a body with neither Content-Length nor Transfer-Encoding
+        MockHttpServletRequest http2Request = new MockHttpServletRequest("POST", "/upload") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        http2Request.setContent(BODY);
+        TeeCaptureHttpServletRequest teeRequest =
+                new TeeCaptureHttpServletRequest(http2Request, 5, captured -> consumedCount.incrementAndGet());
+
+        //test
+        teeRequest.finishCapture(true);
+
+        //check
+        assertEquals(1, consumedCount.get());
+        assertEquals("01234", new String(teeRequest.getCapture().getContentInputStream().readAllBytes(),
+                StandardCharsets.UTF_8));
+        assertTrue(teeRequest.getCapture().isTruncated());
+        assertTrue(teeRequest.getBodyLength() > 5);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenNoBody_thenFinishWithEmptyCapture() {
+        TeeCaptureHttpServletRequest teeRequest =
+                new TeeCaptureHttpServletRequest(request, 5, captured -> consumedCount.incrementAndGet());
+
+        //test
+        teeRequest.finishCapture(true);
+
+        //check
+        assertEquals(1, consumedCount.get());
+        assertEquals(0, teeRequest.getCapture().getTotalLength());
+    }
+}
@@ -0,0 +1,110 @@
+package com.uzum.wms.logging.starter.config;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TeeCaptureHttpServletResponseTest {
+    private static final String CONTENT = "{\"response\":\"ok\"}";
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private final TeeCaptureHttpServletResponse teeResponse = new TeeCaptureHttpServletResponse(response, 5);
+
+    @Test
+    @SneakyThrows
+    void whenWriteToOutputStream_thenWriteThroughAndKeepPrefix() {
+        //test
+        teeResponse.getOutputStream().write(CONTENT.getBytes(StandardCharsets.UTF_8));
+
+        //check
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(CONTENT.length(), teeResponse.getContentSize());
+        assertEquals("{\"res", new String(teeResponse.getContentInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SneakyThrows
+    void whenBinaryContentType_thenOnlyCountBytes() {
+        teeResponse.setContentType("application/pdf");
+
+        //test
+        teeResponse.getOutputStream().write(CONTENT.getBytes(StandardCharsets.UTF_8));
+
+        //check
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(CONTENT.length(), teeResponse.getContentSize());
+        assertEquals(0, teeResponse.getContentInputStream().readAllBytes().length);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenEventStream_thenFlushEveryWriteAndOnlyCountBytes() {
+        teeResponse.setContentType("text/event-stream");
+
+        //test
+        teeResponse.getWriter().write("data: 1\n\n");
+
+        //check
+        assertTrue(teeResponse.isPassThrough());
+        assertTrue(response.isCommitted());
+        assertEquals("data: 1\n\n", response.getContentAsString());
+        assertEquals(9, teeResponse.getContentSize());
+        assertEquals(0, teeResponse.getContentInputStream().readAllBytes().length);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenWriteToWriter_thenNothingIsLeftInEncoder() {
+        teeResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        //test
+        teeResponse.getWriter().print("привет");
+
+        //check
+        assertEquals("привет", response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(12, teeResponse.getContentSize());
+        assertFalse(response.isCommitted());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenFlushBuffer_thenCommitResponse() {
+        teeResponse.getWriter().write(CONTENT);
+
+        //test
+        teeResponse.flushBuffer();
+
+        //check
+        assertTrue(response.isCommitted());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenResetBuffer_thenResetCapture() {
+        teeResponse.getOutputStream().write(CONTENT.getBytes(StandardCharsets.UTF_8));
+
+        //test
+        teeResponse.resetBuffer();
+
+        //check
+        assertEquals(0, teeResponse.getContentSize());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenWriterAlreadyUsed_thenOutputStreamIsNotAllowed() {
+        teeResponse.getWriter();
+
+        assertThrows(IllegalStateException.class, teeResponse::getOutputStream);
+    }
+}
@@ -1,21 +1,34 @@
 package com.uzum.wms.logging.starter.feignclient;
 
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import com.uzum.wms.logging.starter.metrics.LoggingMetrics;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEventSerializer;
+import com.uzum.wms.logging.starter.policy.FeignClientPolicyResolver;
+import com.uzum.wms.logging.starter.policy.HeaderPolicy;
 import feign.Logger;
 import feign.Request;
 import feign.Response;
+import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(OutputCaptureExtension.class)
@@ -49,6 +62,27 @@ class FeignClientLogResponseTest {
         assertEquals(url, rebufferResponse.request().url());
     }
 
+    @Test
+    void whenRepeatableBody_thenCountItBufferedTest() {
+        byte[] bodyBytes = "{body: value}".getBytes();
+        LoggingMetrics loggingMetrics = new LoggingMetrics();
+        FeignClientCustomLogger feignClientCustomLogger = new FeignClientCustomLogger(100, loggingMetrics);
+        Response sourceResponse = Response.builder()
+                .request(streamedResponse(new byte[0]).request())
+                .status(200)
+                .headers(Map.of())
+                .body(bodyBytes)
+                .build();
+
+        //test
+        feignClientCustomLogger.logAndRebufferResponse("FeignClient#getInfo(long)", Logger.Level.FULL,
+                sourceResponse, 100);
+
+        //check
+        assertEquals(bodyBytes.length, loggingMetrics.getFeignBufferedBytes());
+        assertEquals(bodyBytes.length, loggingMetrics.getCapturedBytes());
+    }
+
     @Test
     void payloadOverLimitedTest(CapturedOutput capturedOutput) {
         String url = "http://localhost:8080/api/test";
@@ -69,6 +103,156 @@ class FeignClientLogResponseTest {
                 .build();
         feignClientCustomLogger.logAndRebufferResponse("FeignClient#getInfo(long)", Logger.Level.FULL, sourceResponse, 100);
 
-        assertTrue(capturedOutput.getOut().contains("response body content length is 13"));
+        assertTrue(capturedOutput.getOut().contains("\"payload\":\"Payload length=13 but maxPayload=5. "
+                + "Please, increase logging.maxPayload.\""));
+    }
+
+    @Test
+    @SneakyThrows
+    void whenStreamedBody_thenLogOnceConsumedTest(CapturedOutput capturedOutput) {
+        byte[] bodyBytes = "{\"sku\": \"streamed\"}".getBytes();
+        FeignClientCustomLogger feignClientCustomLogger = new FeignClientCustomLogger(100);
+
+        //test
+        Response rebufferResponse = feignClientCustomLogger.logAndRebufferResponse("FeignClient#getInfo(long)",
+                Logger.Level.FULL, streamedResponse(bodyBytes), 100);
+        assertFalse(capturedOutput.getOut().contains("{\"responseInfo\""));
+        byte[] decoded = rebufferResponse.body().asInputStream().readAllBytes();
+        rebufferResponse.close();
+
+        //check
+        assertArrayEquals(bodyBytes, decoded);
+        assertEquals(1, capturedOutput.getOut().split("\\{\"responseInfo\"", -1).length - 1);
+        assertTrue(capturedOutput.getOut().contains(
+                "\"payload\":\"Content-Type is not specified: {\\\"sku\\\": \\\"streamed\\\"}\""));
+    }
+
+    @Test
+    @SneakyThrows
+    void whenStreamedBodyOverLimit_thenLogLengthTest(CapturedOutput capturedOutput) {
+        byte[] bodyBytes = "{body: value}".getBytes();
+        FeignClientCustomLogger feignClientCustomLogger = new FeignClientCustomLogger(5);
+
+        //test
+        Response rebufferResponse = feignClientCustomLogger.logAndRebufferResponse("FeignClient#getInfo(long)",
+                Logger.Level.FULL, streamedResponse(bodyBytes), 100);
+        byte[] decoded = rebufferResponse.body().asInputStream().readAllBytes();
+
+        //check
+        assertArrayEquals(bodyBytes, decoded);
+        assertTrue(capturedOutput.getOut().contains("Payload length=13 but maxPayload=5. "
+                + "Please, increase logging.maxPayload. Truncated content: {body"));
+    }
+
+    @Test
+    @SneakyThrows
+    void whenStreamedBodyClosedUnread_thenLogTest(CapturedOutput capturedOutput) {
+        FeignClientCustomLogger feignClientCustomLogger = new FeignClientCustomLogger(100);
+
+        //test
+        Response rebufferResponse = feignClientCustomLogger.logAndRebufferResponse("FeignClient#getInfo(long)",
+                Logger.Level.FULL, streamedResponse("{body: value}".getBytes()), 100);
+        rebufferResponse.close();
+
+        //check
+        assertTrue(capturedOutput.getOut().contains("\"httpStatus\":200,\"duration\":100"));
+    }
+
+    @Test
+    void whenBasicLevel_thenSkipHeadersAndBodyTest(CapturedOutput capturedOutput) {
+        FeignClientCustomLogger feignClientCustomLogger = new FeignClientCustomLogger(100);
+        Response sourceResponse = streamedResponse("{body: value}".getBytes());
+
+        //test
+        Response rebufferResponse = feignClientCustomLogger.logAndRebufferResponse("FeignClient#getInfo(long)",
+                Logger.Level.BASIC, sourceResponse, 100);
+
+        //check
+        assertSame(sourceResponse, rebufferResponse);
+        assertTrue(capturedOutput.getOut().contains("{\"responseInfo\":{\"direction\":\"outbound\","
+                + "\"client\":\"FeignClient#getInfo\",\"uri\":\"http://localhost:8080/api/test\",\"httpMethod\":\"GET\","
+                + "\"httpStatus\":200,\"duration\":100}}"));
+    }
+
+    @Test
+    void whenInfoDisabled_thenLogNothingTest(CapturedOutput capturedOutput) {
+        ch.qos.logback.classic.Logger logbackLogger =
+                (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(FeignClientCustomLogger.class);
+        Level level = logbackLogger.getLevel();
+        logbackLogger.setLevel(Level.WARN);
+        try {
+            FeignClientCustomLogger feignClientCustomLogger = new FeignClientCustomLogger(100);
+            Response sourceResponse = streamedResponse("{body: value}".getBytes());
+
+            //test
+            feignClientCustomLogger.logRequest("FeignClient#getInfo(long)", Logger.Level.FULL,
+                    sourceResponse.request());
+            Response rebufferResponse = feignClientCustomLogger.logAndRebufferResponse("FeignClient#getInfo(long)",
+                    Logger.Level.FULL, sourceResponse, 100);
+
+            //check
+            assertSame(sourceResponse, rebufferResponse);
+            assertFalse(capturedOutput.getOut().contains("FeignClient#getInfo"));
+        } finally {
+            logbackLogger.setLevel(level);
+        }
+    }
+
+    @Test
+    void whenClientConfigured_thenApplyItsPolicyTest(CapturedOutput capturedOutput) {
+        LoggingProperties.Feign feign = new LoggingProperties.Feign();
+        LoggingProperties.FeignClient stockClient = new LoggingProperties.FeignClient();
+        stockClient.setEnabled(false);
+        feign.getClients().put("StockClient", stockClient);
+        LoggingProperties.FeignClient partnerClient = new LoggingProperties.FeignClient();
+        partnerClient.setHeaders(false);
+        partnerClient.setResponseMaxPayload(5);
+        feign.getClients().put("PartnerClient#send", partnerClient);
+        FeignClientCustomLogger feignClientCustomLogger = new FeignClientCustomLogger(
+                new FeignClientPolicyResolver(feign, 100), HeaderPolicy.DEFAULT,
+                new HttpLogEventSerializer(new JsonFactory(), 100), new LoggingMetrics());
+
+        //test
+        feignClientCustomLogger.logAndRebufferResponse("StockClient#reserve(long)", Logger.Level.FULL,
+                streamedResponse("{body: value}".getBytes()), 100);
+        feignClientCustomLogger.logAndRebufferResponse("PartnerClient#send(long)", Logger.Level.FULL,
+                Response.builder()
+                        .request(streamedResponse(new byte[0]).request())
+                        .status(200)
+                        .headers(Map.of("Header1", List.of("HeaderValue1")))
+                        .body("{body: value}".getBytes())
+                        .build(), 100);
+
+        //check
+        assertFalse(capturedOutput.getOut().contains("StockClient#reserve"));
+        assertTrue(capturedOutput.getOut().contains("{\"responseInfo\":{\"direction\":\"outbound\","
+                + "\"client\":\"PartnerClient#send\",\"uri\":\"http://localhost:8080/api/test\",\"httpMethod\":\"GET\","
+                + "\"httpStatus\":200,\"duration\":100,"
+                + "\"payload\":\"Payload length=13 but maxPayload=5. Please, increase logging.maxPayload.\"}}"));
+    }
+
+    @Test
+    void formatRetryAndErrorLinesTest() {
+        FeignClientCustomLogger feignClientCustomLogger = new FeignClientCustomLogger(100);
+
+        //test
+        String retrying = feignClientCustomLogger.format("StockClient#reserve(long)", "---> RETRYING");
+        String error = feignClientCustomLogger.format("StockClient#reserve(long)", "<--- ERROR %s: %s (%sms)",
+                "IOException", null, 15L);
+        String other = feignClientCustomLogger.format("StockClient#reserve(long)", "%s%n100%%", "line");
+
+        //check
+        assertEquals("[StockClient#reserve] ---> RETRYING", retrying);
+        assertEquals("[StockClient#reserve] <--- ERROR IOException: null (15ms)", error);
+        assertEquals("[StockClient#reserve] line" + System.lineSeparator() + "100%%", other);
+    }
+
+    private static Response streamedResponse(byte[] bodyBytes) {
+        return Response.builder()
+                .request(Request.create(Request.HttpMethod.GET, "http://localhost:8080/api/test", Map.of(), null,
+                        StandardCharsets.UTF_8, null))
+                .status(200)
+                .body(new ByteArrayInputStream(bodyBytes), null)
+                .build();
     }
 }
@@ -2,8 +2,12 @@ package com.uzum.wms.logging.starter.filters;
 
 import com.uzum.wms.logging.starter.BaseIntegrationTest;
 import com.uzum.wms.logging.starter.auto.LoggingConfiguration;
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import com.uzum.wms.logging.starter.metrics.LoggingMetrics;
 import com.uzum.wms.logging.starter.utils.IOTestUtils;
 import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -20,13 +24,21 @@ import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.skyscreamer.jsonassert.comparator.CustomComparator;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockPart;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 
 import java.nio.charset.StandardCharsets;
@@ -38,9 +50,11 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -52,6 +66,9 @@ import static org.skyscreamer.jsonassert.JSONAssert.assertEquals;
 class RequestResponseFilterTest extends BaseIntegrationTest {
     private static final String RESPONSE_CONTENT = "{\"response\":\"ok\"}";
 
+    private static final Customization ANY_DURATION = Customization.customization("responseInfo.duration",
+            (expectedDuration, actualDuration) -> ((Number) actualDuration).longValue() >= 0);
+
     private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/complete");
 
     private final MockHttpServletResponse response = new MockHttpServletResponse();
@@ -61,6 +78,9 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
     @Autowired
     private RequestResponseFilter requestResponseFilter;
 
+    @Autowired
+    private LoggingProperties loggingProperties;
+
     @BeforeEach
     void init() {
         request.addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
@@ -106,7 +126,8 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
                 IOTestUtils.getResourceAsString("/logging/ResponseInfoLogWithContentTypeJson.json");
         assertEquals(expectedResponseLog, actualResponseLog, new CustomComparator(JSONCompareMode.STRICT,
                 Customization.customization("responseInfo.uri", (expectedUri, actualUri)
-                        -> StringUtils.contains((String) actualUri, "/complete?invoiceId=1"))));
+                        -> StringUtils.contains((String) actualUri, "/complete?invoiceId=1")),
+                ANY_DURATION));
     }
 
     @Test
@@ -141,7 +162,8 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
                 "/logging/ResponseInfoLogWithoutContentTypeJson.json");
         assertEquals(expectedResponseLog, actualResponseLog, new CustomComparator(JSONCompareMode.STRICT,
                 Customization.customization("responseInfo.uri", (expectedUri, actualUri)
-                        -> StringUtils.contains((String) actualUri, "/complete?invoiceId=1"))));
+                        -> StringUtils.contains((String) actualUri, "/complete?invoiceId=1")),
+                ANY_DURATION));
     }
 
     @Test
@@ -177,7 +199,8 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
                 "/logging/ResponseInfoLogWithContentTypePDF.json");
         assertEquals(expectedResponseLog, actualResponseLog, new CustomComparator(JSONCompareMode.STRICT,
                 Customization.customization("responseInfo.uri", (expectedUri, actualUri)
-                        -> StringUtils.contains((String) actualUri, "/complete?invoiceId=1"))));
+                        -> StringUtils.contains((String) actualUri, "/complete?invoiceId=1")),
+                ANY_DURATION));
     }
 
     @Test
@@ -215,7 +238,8 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
                 "/logging/ResponseInfoLogMaxPayloadExceed.json");
         assertEquals(expectedResponseLog, actualResponseLog, new CustomComparator(JSONCompareMode.STRICT,
                 Customization.customization("responseInfo.uri", (expectedUri, actualUri)
-                        -> StringUtils.contains((String) actualUri, "/complete?invoiceId=1"))));
+                        -> StringUtils.contains((String) actualUri, "/complete?invoiceId=1")),
+                ANY_DURATION));
     }
 
     @Test
@@ -251,7 +275,8 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
                 "/logging/ResponseInfoLogWithArbitraryContentType.json");
         assertEquals(expectedResponseLog, actualResponseLog, new CustomComparator(JSONCompareMode.STRICT,
                 Customization.customization("responseInfo.uri", (expectedUri, actualUri)
-                        -> StringUtils.contains((String) actualUri, "/complete?invoiceId=1"))));
+                        -> StringUtils.contains((String) actualUri, "/complete?invoiceId=1")),
+                ANY_DURATION));
     }
 
     @SneakyThrows
@@ -272,6 +297,20 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
         assertFalse(outLog.contains("responseInfo"));
     }
 
+    @SneakyThrows
+    @Test
+    void loggingWithoutSwaggerTest(CapturedOutput capturedOutput) {
+        MockHttpServletRequest swaggerRequest = new MockHttpServletRequest("GET", "/swagger-ui/index.html");
+
+        //test
+        requestResponseFilter.doFilterInternal(swaggerRequest, response, filterChain);
+
+        //check
+        String outLog = capturedOutput.getOut();
+        assertFalse(outLog.contains("requestInfo"));
+        assertFalse(outLog.contains("responseInfo"));
+    }
+
     @SneakyThrows
     @Test
     void beforeRequestEmptyAllHeadersTest() {
@@ -283,18 +322,30 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
 
     @SneakyThrows
     @Test
-    void whenRequestAsync_thenNotLogResponse() {
+    void whenRequestAsync_thenLogResponseOnComplete(CapturedOutput capturedOutput) {
         RequestResponseFilter reqResFilter = spy(requestResponseFilter);
         request.setAsyncStarted(true);
         HttpServletRequest spyRequest = spy(request);
         when(spyRequest.getAsyncContext()).thenReturn(mock(AsyncContext.class));
+        ArgumentCaptor<AsyncListener> listenerCaptor = ArgumentCaptor.forClass(AsyncListener.class);
 
         //test
         reqResFilter.doFilterInternal(spyRequest, response, filterChain);
+        assertFalse(capturedOutput.getOut().contains("responseInfo"));
+        verify(spyRequest, times(1)).getAsyncContext();
+        verify(spyRequest.getAsyncContext(), times(1)).addListener(listenerCaptor.capture());
+
+        MDC.put(INIT_URI, "/another");
+        response.setStatus(202);
+        listenerCaptor.getValue().onComplete(new AsyncEvent(spyRequest.getAsyncContext()));
 
         //check
-        verify(spyRequest, times(1)).getAsyncContext();
-        verify(spyRequest.getAsyncContext(), times(1)).addListener(any());
+        String outLog = capturedOutput.getOut();
+        Assertions.assertTrue(outLog.contains("\"httpStatus\":202,\"duration\":"));
+        Assertions.assertTrue(outLog.contains("\"payload\":\"Content-Type is not specified: "
+                + "{\\\"response\\\":\\\"ok\\\"}\""));
+        Assertions.assertEquals("/another", MDC.get(INIT_URI));
+        MDC.remove(INIT_URI);
     }
 
     @Test
@@ -317,8 +368,8 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
     @SneakyThrows
     @Test
     void payloadMoreThenMaxPayloadTest(CapturedOutput capturedOutput) {
-        String largeContent = RandomStringUtils.random(41);
-        request.setContent(largeContent.getBytes(StandardCharsets.UTF_8));
+        byte[] largeContent = RandomStringUtils.random(41).getBytes(StandardCharsets.UTF_8);
+        request.setContent(largeContent);
 
         //test
         requestResponseFilter.doFilterInternal(request, response, filterChain);
@@ -327,8 +378,8 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
         String outLog = capturedOutput.getOut();
         assertFalse(
                 outLog.contains("java.lang.StringIndexOutOfBoundsException: Range [0, 40) out of bounds for length"));
-        Assertions.assertTrue(
-                outLog.contains("Payload length=41 but maxPayload=40. Please, increase logging.maxPayload"));
+        Assertions.assertTrue(outLog.contains("Payload length=" + largeContent.length
+                + " but maxPayload=40. Please, increase logging.maxPayload"));
     }
 
     @SneakyThrows
@@ -348,4 +399,393 @@ class RequestResponseFilterTest extends BaseIntegrationTest {
                 outLog.contains("Payload length=50 but maxPayload=40. Please, increase logging.maxPayload"));
     }
 
+    @SneakyThrows
+    @Test
+    void whenDebugDisabled_thenPassRawRequestAndResponse(CapturedOutput capturedOutput) {
+        LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+        loggingSystem.setLogLevel(RequestResponseFilter.class.getName(), LogLevel.INFO);
+        FilterChain filterChain = mock(FilterChain.class);
+        try {
+            //test
+            requestResponseFilter.doFilterInternal(request, response, filterChain);
+        } finally {
+            loggingSystem.setLogLevel(RequestResponseFilter.class.getName(), null);
+        }
+
+        //check
+        verify(filterChain, times(1)).doFilter(request, response);
+        assertFalse(capturedOutput.getOut().contains("requestInfo"));
+        assertFalse(capturedOutput.getOut().contains("responseInfo"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenDebugEnabledAgain_thenLogWithoutRestart(CapturedOutput capturedOutput) {
+        LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+        loggingSystem.setLogLevel(RequestResponseFilter.class.getName(), LogLevel.INFO);
+        requestResponseFilter.doFilterInternal(request, response, filterChain);
+        assertFalse(capturedOutput.getOut().contains("requestInfo"));
+
+        //test
+        loggingSystem.setLogLevel(RequestResponseFilter.class.getName(), null);
+        requestResponseFilter.doFilterInternal(new MockHttpServletRequest("GET", "/complete"),
+                new MockHttpServletResponse(), filterChain);
+
+        //check
+        Assertions.assertTrue(capturedOutput.getOut().contains("requestInfo"));
+        Assertions.assertTrue(capturedOutput.getOut().contains("responseInfo"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenDisabledByProperty_thenPassRawRequestAndResponse() {
+        ArgumentCaptor<HttpServletRequest> requestCaptor = ArgumentCaptor.forClass(HttpServletRequest.class);
+        FilterChain filterChain = mock(FilterChain.class);
+        loggingProperties.setEnabled(false);
+        try {
+            //test
+            requestResponseFilter.doFilterInternal(request, response, filterChain);
+        } finally {
+            loggingProperties.setEnabled(true);
+        }
+
+        //check
+        verify(filterChain, times(1)).doFilter(requestCaptor.capture(), eq(response));
+        assertSame(request, requestCaptor.getValue());
+    }
+
+    @Test
+    void whenRecorderFails_thenKeepHandlerException(CapturedOutput capturedOutput) {
+        RequestResponseFilter failingRecorderFilter = new RequestResponseFilter(40, loggingProperties, event -> {
+        }, (request, status, timing) -> {
+            throw new IllegalStateException("registry is closed");
+        }, new LoggingMetrics());
+        FilterChain failingChain = (request, response) -> {
+            throw new IllegalArgumentException("handler failed");
+        };
+
+        //test
+        IllegalArgumentException thrown = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> failingRecorderFilter.doFilterInternal(request, response, failingChain));
+
+        //check
+        Assertions.assertEquals("handler failed", thrown.getMessage());
+        Assertions.assertTrue(capturedOutput.getAll().contains("Unable to record request phases"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenHandlerReadsLargeBody_thenPassItThroughAndLogTruncatedPrefix(CapturedOutput capturedOutput) {
+        byte[] largeContent = "a".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+        request.setContent(largeContent);
+        byte[][] readByHandler = new byte[1][];
+
+        //test
+        requestResponseFilter.doFilterInternal(request, response,
+                (request, response) -> readByHandler[0] = request.getInputStream().readAllBytes());
+
+        //check
+        Assertions.assertArrayEquals(largeContent, readByHandler[0]);
+        Assertions.assertTrue(capturedOutput.getOut()
+                .contains("Payload length=10000 but maxPayload=40. Please, increase logging.maxPayload"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenUnreadChunkedBodyLargerThanMaxPayload_thenLogItAsTruncated(CapturedOutput capturedOutput) {
+        MockHttpServletRequest chunkedRequest = new MockHttpServletRequest("POST", "/complete") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunkedRequest.addHeader(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        chunkedRequest.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        chunkedRequest.setContent("a".repeat(100).getBytes(StandardCharsets.UTF_8));
+
+        //test
+        requestResponseFilter.doFilterInternal(chunkedRequest, response, filterChain);
+
+        //check
+        String outLog = capturedOutput.getOut();
+        Assertions.assertTrue(outLog.contains("but maxPayload=40. Please, increase logging.maxPayload. "
+                + "Truncated content: " + "a".repeat(40)));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenRequestNotSampled_thenPassRawRequestAndLogWithoutPayload(CapturedOutput capturedOutput) {
+        request.setContent("{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+        ArgumentCaptor<HttpServletRequest> requestCaptor = ArgumentCaptor.forClass(HttpServletRequest.class);
+        FilterChain filterChain = mock(FilterChain.class);
+        loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.PROBABILITY);
+        loggingProperties.getSampling().setProbability(0);
+        try {
+            //test
+            requestResponseFilter.doFilterInternal(request, response, filterChain);
+        } finally {
+            loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.ALWAYS);
+            loggingProperties.getSampling().setProbability(1.0);
+        }
+
+        //check
+        verify(filterChain, times(1)).doFilter(requestCaptor.capture(), eq(response));
+        assertSame(request, requestCaptor.getValue());
+        Assertions.assertTrue(capturedOutput.getOut().contains("requestInfo"));
+        assertFalse(capturedOutput.getOut().contains("\"payload\":"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenUnsampledRequestFails_thenLogBodies(CapturedOutput capturedOutput) {
+        request.setContent("{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+        loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.PROBABILITY);
+        loggingProperties.getSampling().setProbability(0);
+        loggingProperties.getSampling().setAlwaysOnError(true);
+        try {
+            //test
+            requestResponseFilter.doFilterInternal(request, response, (request, response) -> {
+                request.getInputStream().readAllBytes();
+                response.getWriter().write(RESPONSE_CONTENT);
+            });
+            Assertions.assertFalse(capturedOutput.getOut().contains("\"payload\":"));
+
+            MockHttpServletRequest failedRequest = new MockHttpServletRequest("POST", "/complete");
+            failedRequest.setContent("{\"key\":\"failed\"}".getBytes(StandardCharsets.UTF_8));
+            requestResponseFilter.doFilterInternal(failedRequest, new MockHttpServletResponse(),
+                    (request, response) -> {
+                        request.getInputStream().readAllBytes();
+                        ((HttpServletResponse) response).setStatus(500);
+                        response.getWriter().write(RESPONSE_CONTENT);
+                    });
+        } finally {
+            loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.ALWAYS);
+            loggingProperties.getSampling().setProbability(1.0);
+            loggingProperties.getSampling().setAlwaysOnError(false);
+        }
+
+        //check
+        String outLog = capturedOutput.getOut();
+        Assertions.assertTrue(outLog.contains("{\\\"key\\\":\\\"failed\\\"}"));
+        Assertions.assertTrue(outLog.contains("\"httpStatus\":500,\"duration\":"));
+        Assertions.assertTrue(outLog.contains("\"payload\":\"Content-Type is not specified: "));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenTailPolicyAndRequestSucceeds_thenLogSummaryOnly(CapturedOutput capturedOutput) {
+        request.setContent("{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+        loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.TAIL);
+        try {
+            //test
+            requestResponseFilter.doFilterInternal(request, response, filterChain);
+        } finally {
+            loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.ALWAYS);
+        }
+
+        //check
+        String outLog = capturedOutput.getOut();
+        assertFalse(outLog.contains("requestInfo"));
+        assertFalse(outLog.contains("responseInfo"));
+        Assertions.assertTrue(outLog.contains("{\"requestSummary\":{\"direction\":\"inbound\",\"uri\":\"http://localhost/complete\","
+                + "\"httpMethod\":\"POST\",\"httpStatus\":200,\"duration\":"));
+        Assertions.assertTrue(outLog.contains("\"requestLength\":15,\"responseLength\":17}}"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenTailPolicyDropsBodies_thenStillCountCapturedBytes() {
+        LoggingProperties tailProperties = new LoggingProperties();
+        tailProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.TAIL);
+        LoggingMetrics loggingMetrics = new LoggingMetrics();
+        RequestResponseFilter tailFilter = new RequestResponseFilter(40, tailProperties, event -> {
+        }, (request, status, timing) -> {
+        }, loggingMetrics);
+        request.setContent("{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+
+        //test
+        tailFilter.doFilterInternal(request, response, filterChain);
+
+        //check
+        Assertions.assertEquals(15 + RESPONSE_CONTENT.length(), loggingMetrics.getCapturedBytes());
+    }
+
+    @SneakyThrows
+    @Test
+    void whenTailPolicyAndChainThrows_thenLogBodies(CapturedOutput capturedOutput) {
+        request.setContent("{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+        loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.TAIL);
+        try {
+            //test
+            Assertions.assertThrows(IllegalStateException.class, () ->
+                    requestResponseFilter.doFilterInternal(request, response, (request, response) -> {
+                        request.getInputStream().read();
+                        throw new IllegalStateException("handler failed");
+                    }));
+        } finally {
+            loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.ALWAYS);
+        }
+
+        //check
+        String outLog = capturedOutput.getOut();
+        assertFalse(outLog.contains("requestSummary"));
+        Assertions.assertTrue(outLog.contains("\"payload\":{\"key\":\"value\"}"));
+        Assertions.assertTrue(outLog.contains("responseInfo"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenTailPolicyAndAsyncRequestTimesOut_thenLogBodiesOnComplete(CapturedOutput capturedOutput) {
+        request.setContent("{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+        request.setAsyncSupported(true);
+        loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.TAIL);
+        try {
+            //test
+            requestResponseFilter.doFilterInternal(request, response, (request, response) -> {
+                request.getInputStream().readAllBytes();
+                request.startAsync();
+            });
+            assertFalse(capturedOutput.getOut().contains("requestInfo"));
+
+            MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+            for (AsyncListener listener : asyncContext.getListeners()) {
+                listener.onTimeout(new AsyncEvent(asyncContext));
+            }
+            asyncContext.complete();
+        } finally {
+            loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.ALWAYS);
+        }
+
+        //check
+        String outLog = capturedOutput.getOut();
+        assertFalse(outLog.contains("requestSummary"));
+        Assertions.assertTrue(outLog.contains("\"payload\":{\"key\":\"value\"}"));
+        Assertions.assertTrue(outLog.contains("responseInfo"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenRouteDisablesBodyCapture_thenPassRawRequest(CapturedOutput capturedOutput) {
+        MockHttpServletRequest stockSyncRequest = new MockHttpServletRequest("POST", "/stock-sync/items");
+        stockSyncRequest.setContent("{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+        ArgumentCaptor<HttpServletRequest> requestCaptor = ArgumentCaptor.forClass(HttpServletRequest.class);
+        FilterChain filterChain = mock(FilterChain.class);
+
+        //test
+        requestResponseFilter.doFilterInternal(stockSyncRequest, response, filterChain);
+
+        //check
+        verify(filterChain, times(1)).doFilter(requestCaptor.capture(), eq(response));
+        assertSame(stockSyncRequest, requestCaptor.getValue());
+        Assertions.assertTrue(capturedOutput.getOut().contains("requestInfo"));
+        assertFalse(capturedOutput.getOut().contains("\"payload\":"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenRouteOverridesMaxPayload_thenLogLargerBody(CapturedOutput capturedOutput) {
+        String content = "a".repeat(60);
+        MockHttpServletRequest orderRequest = new MockHttpServletRequest("POST", "/orders/42");
+        orderRequest.setContent(content.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletRequest otherMethodRequest = new MockHttpServletRequest("PUT", "/orders/42");
+        otherMethodRequest.setContent(content.getBytes(StandardCharsets.UTF_8));
+
+        //test
+        requestResponseFilter.doFilterInternal(orderRequest, response, (request, response) ->
+                request.getInputStream().readAllBytes());
+        requestResponseFilter.doFilterInternal(otherMethodRequest, new MockHttpServletResponse(),
+                (request, response) -> request.getInputStream().readAllBytes());
+
+        //check
+        String outLog = capturedOutput.getOut();
+        Assertions.assertTrue(outLog.contains("\"payload\":\"Content-Type is not specified: " + content + "\""));
+        Assertions.assertTrue(outLog.contains("Payload length=60 but maxPayload=40"));
+    }
+
+
+    @SneakyThrows
+    @Test
+    void whenStreamingHandler_thenPassThroughAndLogLength(CapturedOutput capturedOutput) {
+        HandlerMethod handler = new HandlerMethod(this, getClass().getDeclaredMethod("export"));
+
+        //test
+        requestResponseFilter.doFilterInternal(request, response, (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(RESPONSE_CONTENT.getBytes(StandardCharsets.UTF_8));
+        });
+
+        //check
+        Assertions.assertTrue(response.isCommitted());
+        Assertions.assertEquals(RESPONSE_CONTENT, response.getContentAsString());
+        Assertions.assertTrue(capturedOutput.getOut().contains("\"responseLength\":" + RESPONSE_CONTENT.length()));
+        assertFalse(capturedOutput.getOut().contains("\"payload\":{\"response\":\"ok\"}"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenMultipartUpload_thenLogPartsMetadata(CapturedOutput capturedOutput) {
+        MockHttpServletRequest uploadRequest = new MockHttpServletRequest("POST", "/upload");
+        uploadRequest.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=----boundary");
+        uploadRequest.addPart(new MockPart("comment", "fragile".getBytes(StandardCharsets.UTF_8)));
+        MockPart photo = new MockPart("photo", "box.jpg", new byte[2048]);
+        photo.getHeaders().setContentType(MediaType.IMAGE_JPEG);
+        uploadRequest.addPart(photo);
+
+        //test
+        requestResponseFilter.doFilterInternal(uploadRequest, response, (request, response) ->
+                ((HttpServletRequest) request).getParts());
+
+        //check
+        Assertions.assertTrue(capturedOutput.getOut().contains("\"parts\":[{\"name\":\"comment\",\"size\":7,"
+                + "\"value\":\"fragile\"},{\"name\":\"photo\",\"filename\":\"box.jpg\","
+                + "\"contentType\":\"image/jpeg\",\"size\":2048}]"));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenHandlerNeverAsksForParts_thenLogOnlyLength(CapturedOutput capturedOutput) {
+        MockHttpServletRequest uploadRequest = new MockHttpServletRequest("POST", "/upload");
+        uploadRequest.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=----boundary");
+        uploadRequest.setContent(new byte[2048]);
+        uploadRequest.addPart(new MockPart("comment", "fragile".getBytes(StandardCharsets.UTF_8)));
+        MockHttpServletRequest spyRequest = spy(uploadRequest);
+
+        //test
+        requestResponseFilter.doFilterInternal(spyRequest, response, filterChain);
+
+        //check
+        verify(spyRequest, never()).getParts();
+        String outLog = capturedOutput.getOut();
+        Assertions.assertTrue(outLog.contains("\"payload\":\"Content-Type is multipart/form-data"));
+        assertFalse(outLog.contains("\"parts\""));
+    }
+
+    @SneakyThrows
+    @Test
+    void whenMultipartRouteWithoutBodyCapture_thenStreamRawBodyToHandler(CapturedOutput capturedOutput) {
+        byte[] content = "------boundary\r\nContent-Disposition: form-data; name=\"passport\"\r\n\r\nAB123456\r\n"
+                .getBytes(StandardCharsets.UTF_8);
+        MockHttpServletRequest uploadRequest = new MockHttpServletRequest("POST", "/stock-sync/upload");
+        uploadRequest.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=----boundary");
+        uploadRequest.setContent(content);
+        uploadRequest.addPart(new MockPart("passport", "AB123456".getBytes(StandardCharsets.UTF_8)));
+        MockHttpServletRequest spyRequest = spy(uploadRequest);
+        byte[][] streamed = new byte[1][];
+
+        //test
+        requestResponseFilter.doFilterInternal(spyRequest, response, (request, response) ->
+                streamed[0] = request.getInputStream().readAllBytes());
+
+        //check
+        verify(spyRequest, never()).getParts();
+        Assertions.assertArrayEquals(content, streamed[0]);
+        Assertions.assertTrue(capturedOutput.getOut().contains("requestInfo"));
+        assertFalse(capturedOutput.getOut().contains("AB123456"));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok(outputStream -> outputStream.write(RESPONSE_CONTENT.getBytes(StandardCharsets.UTF_8)));
+    }
+
 }
@@ -9,33 +9,34 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class AsyncLoggingListenerTest {
-    private AsyncListener asyncListener;
+    private final List<Boolean> completions = new ArrayList<>();
 
-    @Mock
-    private ContentCachingResponseWrapper response;
+    private AsyncListener asyncListener;
 
     @Mock
     private AsyncEvent asyncEvent;
 
     @BeforeEach
     void init() {
-        this.asyncListener = new AsyncLoggingListener(response);
+        this.asyncListener = new AsyncLoggingListener(completions::add);
     }
 
     @Test
     @SneakyThrows
     void onCompleteTest() {
-        //mock
-        doNothing().when(response).copyBodyToResponse();
         //test
         asyncListener.onComplete(asyncEvent);
-        verify(response, times(1)).copyBodyToResponse();
+        verifyNoInteractions(asyncEvent);
+        assertEquals(List.of(false), completions);
     }
 
     @Test
@@ -47,4 +48,15 @@ class AsyncLoggingListenerTest {
         asyncListener.onError(asyncEvent);
         verify(asyncEvent, times(1)).getThrowable();
     }
+
+    @Test
+    @SneakyThrows
+    void onCompleteAfterTimeoutTest() {
+        //test
+        asyncListener.onTimeout(asyncEvent);
+        asyncListener.onComplete(asyncEvent);
+        asyncListener.onComplete(asyncEvent);
+        //check
+        assertEquals(List.of(true), completions);
+    }
 }
@@ -0,0 +1,57 @@
+package com.uzum.wms.logging.starter.matcher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathPatternMatcherTest {
+    private final PathPatternMatcher matcher = PathPatternMatcher.compile(List.of("/actuator/health",
+            "/swagger-ui/**", "/v3/api-docs**", "/orders/{id}/items", "/files/*.pdf", "/a/**/z"));
+
+    @Test
+    void literalPatternTest() {
+        assertTrue(matcher.matches("/actuator/health"));
+        assertTrue(matcher.matches("/actuator/health/"));
+        assertFalse(matcher.matches("/actuator/healthz"));
+        assertFalse(matcher.matches("/actuator"));
+    }
+
+    @Test
+    void anySegmentsPatternTest() {
+        assertTrue(matcher.matches("/swagger-ui"));
+        assertTrue(matcher.matches("/swagger-ui/index.html"));
+        assertTrue(matcher.matches("/swagger-ui/a/b/c.js"));
+        assertFalse(matcher.matches("/swagger-uis/index.html"));
+        assertTrue(matcher.matches("/a/z"));
+        assertTrue(matcher.matches("/a/b/c/z"));
+        assertFalse(matcher.matches("/a/b/c/y"));
+    }
+
+    @Test
+    void wildcardWithinSegmentTest() {
+        assertTrue(matcher.matches("/v3/api-docs"));
+        assertTrue(matcher.matches("/v3/api-docs.yaml"));
+        assertFalse(matcher.matches("/v3/api-docs/swagger-config"));
+        assertTrue(matcher.matches("/files/report.pdf"));
+        assertFalse(matcher.matches("/files/report.pdfx"));
+    }
+
+    @Test
+    void uriVariableTest() {
+        assertTrue(matcher.matches("/orders/42/items"));
+        assertFalse(matcher.matches("/orders/42/43/items"));
+        assertFalse(matcher.matches("/orders/items"));
+    }
+
+    @Test
+    void repeatedLookupTest() {
+        assertTrue(matcher.matches("/swagger-ui/index.html"));
+        assertTrue(matcher.matches("/swagger-ui/index.html"));
+        assertFalse(matcher.matches("/complete"));
+        assertFalse(matcher.matches("/complete"));
+        assertFalse(matcher.matches(null));
+    }
+}
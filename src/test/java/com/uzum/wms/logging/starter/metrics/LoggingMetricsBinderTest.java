@@ -0,0 +1,71 @@
+package com.uzum.wms.logging.starter.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEvent;
+import com.uzum.wms.logging.starter.pipeline.HttpLogEventSerializer;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LoggingMetricsBinderTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final LoggingMetrics loggingMetrics = new LoggingMetrics();
+
+    private final HttpLogEventSerializer serializer = new HttpLogEventSerializer(new JsonFactory(), 10,
+            loggingMetrics);
+
+    @Test
+    @SneakyThrows
+    void countSerializerOverheadTest() {
+        new LoggingMetricsBinder(loggingMetrics, null).bindTo(meterRegistry);
+
+        //test
+        String truncated = serializer.serialize(responseEvent("{\"key\":\"a long value\"}"));
+        String invalid = serializer.serialize(responseEvent("{\"key\":"));
+
+        //check
+        assertEquals(truncated.length() + invalid.length(), counter("wms.logging.payload.logged"));
+        assertEquals(1, counter("wms.logging.payload.truncated"));
+        assertEquals(1, counter("wms.logging.payload.json.failures"));
+        FunctionTimer serialization = meterRegistry.find("wms.logging.serialization").functionTimer();
+        assertEquals(2, serialization.count());
+    }
+
+    @Test
+    void whenWritingOnRequestThread_thenNoQueueMetersTest() {
+        //test
+        new LoggingMetricsBinder(loggingMetrics, null).bindTo(meterRegistry);
+
+        //check
+        assertNull(meterRegistry.find("wms.logging.events.dropped").functionCounter());
+        assertNull(meterRegistry.find("wms.logging.events.queued").gauge());
+    }
+
+    private double counter(String name) {
+        return meterRegistry.find(name).functionCounter().count();
+    }
+
+    private static HttpLogEvent responseEvent(String payload) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return HttpLogEvent.builder()
+                .type(HttpLogEvent.Type.RESPONSE)
+                .uri("/complete")
+                .status(200)
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .payload(bytes)
+                .payloadLength(bytes.length)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.uzum.wms.logging.starter.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class MicrometerRequestPhaseRecorderTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MicrometerRequestPhaseRecorder recorder = new MicrometerRequestPhaseRecorder(meterRegistry);
+
+    @Test
+    void recordPhasesByRouteAndStatusTest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/42");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/orders/{id}");
+        RequestTiming timing = new RequestTiming(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5));
+        timing.markHandlerStart();
+        timing.markHandlerEnd();
+        timing.markDrainEnd();
+        timing.markLoggingEnd();
+
+        //test
+        recorder.record(request, 200, timing);
+        recorder.record(request, 200, timing);
+
+        //check
+        Timer pre = meterRegistry.get(MicrometerRequestPhaseRecorder.METRIC_NAME)
+                .tags("phase", "pre", "uri", "/orders/{id}", "status", "200").timer();
+        assertEquals(2, pre.count());
+        assertEquals(2 * timing.getPreProcessingNanos(), pre.totalTime(TimeUnit.NANOSECONDS), 1);
+        for (String phase : new String[]{"handler", "drain", "logging"}) {
+            assertNotNull(meterRegistry.find(MicrometerRequestPhaseRecorder.METRIC_NAME)
+                    .tags("phase", phase, "uri", "/orders/{id}", "status", "200").timer());
+        }
+    }
+
+    @Test
+    void boundedRouteCardinalityTest() {
+        RequestTiming timing = RequestTiming.start();
+
+        //test
+        recorder.record(new MockHttpServletRequest("GET", "/unmapped"), 404, timing);
+        for (int i = 0; i < 300; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/route/" + i);
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/route/" + i);
+            recorder.record(request, 200, timing);
+        }
+
+        //check
+        assertNotNull(meterRegistry.find(MicrometerRequestPhaseRecorder.METRIC_NAME)
+                .tags("phase", "pre", "uri", "UNKNOWN", "status", "404").timer());
+        assertEquals(300 - 255, meterRegistry.get(MicrometerRequestPhaseRecorder.METRIC_NAME)
+                .tags("phase", "pre", "uri", "OTHER", "status", "200").timer().count());
+    }
+}
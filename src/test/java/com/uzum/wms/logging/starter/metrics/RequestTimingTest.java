@@ -0,0 +1,31 @@
+package com.uzum.wms.logging.starter.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestTimingTest {
+
+    @Test
+    void phasesAddUpToElapsedTimeTest() throws InterruptedException {
+        RequestTiming timing = new RequestTiming(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(20));
+
+        //test
+        timing.markHandlerStart();
+        Thread.sleep(5);
+        timing.markHandlerEnd();
+        timing.markDrainEnd();
+        timing.markLoggingEnd();
+
+        //check
+        assertTrue(timing.getPreProcessingNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(timing.getHandlerNanos() >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(timing.getDrainNanos() >= 0);
+        assertTrue(timing.getLoggingNanos() >= 0);
+        assertEquals(TimeUnit.NANOSECONDS.toMillis(timing.getPreProcessingNanos() + timing.getHandlerNanos()
+                + timing.getDrainNanos()), timing.getElapsedMillis());
+    }
+}
@@ -0,0 +1,132 @@
+package com.uzum.wms.logging.starter.pipeline;
+
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncHttpLogEventPublisherTest {
+    private final List<HttpLogEvent> written = new CopyOnWriteArrayList<>();
+
+    private final List<String> writtenMdc = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch writerReleased = new CountDownLatch(1);
+
+    private final LoggingProperties.Async properties = new LoggingProperties.Async();
+
+    private AsyncHttpLogEventPublisher publisher;
+
+    @BeforeEach
+    void init() {
+        properties.setQueueCapacity(1);
+        properties.setShutdownTimeout(Duration.ofMillis(100));
+        publisher = new AsyncHttpLogEventPublisher(new HttpLogEventWriter(null) {
+            @Override
+            public void publish(HttpLogEvent event) {
+                awaitRelease(writerReleased);
+                writtenMdc.add(MDC.get("traceId"));
+                written.add(event);
+            }
+        }, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writerReleased.countDown();
+        publisher.stop();
+    }
+
+    @Test
+    void whenPublish_thenWriteOnWorkerWithMdcCopy() {
+        writerReleased.countDown();
+        publisher.start();
+
+        //test
+        publisher.publish(event(Map.of("traceId", "trace-1")));
+
+        //check
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 1);
+        assertEquals(List.of("trace-1"), writtenMdc);
+    }
+
+    @Test
+    void whenQueueIsFullAndDropPolicy_thenDropAndCount() {
+        publisher.start();
+        publisher.publish(event(null));
+        await().atMost(Duration.ofSeconds(5)).until(() -> publisher.getQueueSize() == 0);
+
+        //test
+        publisher.publish(event(null));
+        publisher.publish(event(null));
+
+        //check
+        assertEquals(1, publisher.getDroppedCount());
+        writerReleased.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 2);
+    }
+
+    @Test
+    void whenQueueIsFullAndBlockPolicy_thenWaitForSlotAndCount() throws InterruptedException {
+        properties.setOverflowPolicy(LoggingProperties.OverflowPolicy.BLOCK);
+        publisher.start();
+        publisher.publish(event(null));
+        await().atMost(Duration.ofSeconds(5)).until(() -> publisher.getQueueSize() == 0);
+        publisher.publish(event(null));
+
+        //test
+        Thread producer = new Thread(() -> publisher.publish(event(null)));
+        producer.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> publisher.getBlockedCount() == 1);
+        writerReleased.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+
+        //check
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 3);
+        assertEquals(0, publisher.getDroppedCount());
+    }
+
+    @Test
+    void whenStop_thenDrainQueue() {
+        writerReleased.countDown();
+        publisher.start();
+
+        //test
+        for (int i = 0; i < 10; i++) {
+            properties.setQueueCapacity(10);
+            publisher.publish(event(null));
+        }
+        publisher.stop();
+
+        //check
+        assertEquals(10, written.size() + publisher.getDroppedCount());
+        assertEquals(0, publisher.getQueueSize());
+    }
+
+    private static HttpLogEvent event(Map<String, String> mdc) {
+        return HttpLogEvent.builder()
+                .type(HttpLogEvent.Type.RESPONSE)
+                .uri("/complete")
+                .status(200)
+                .mdc(mdc)
+                .build();
+    }
+
+    private static void awaitRelease(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.uzum.wms.logging.starter.pipeline;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.uzum.wms.logging.starter.config.PayloadCapture;
+import com.uzum.wms.logging.starter.metrics.LoggingMetrics;
+import com.uzum.wms.logging.starter.redaction.JsonRedactor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpLogEventSerializerTest {
+    private final HttpLogEventSerializer serializer = new HttpLogEventSerializer(new JsonFactory(), 40);
+
+    @Test
+    @SneakyThrows
+    void whenJsonPayload_thenEmbedAsIs() {
+        HttpLogEvent event = responseEvent(MediaType.APPLICATION_JSON_VALUE, "{\"key\": [1, 2.50, \"value\"]}");
+
+        //test
+        String line = serializer.serialize(event);
+
+        //check
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"application/json\"]},"
+                + "\"payload\":{\"key\": [1, 2.50, \"value\"]}}}", line);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenJsonPayloadBetweenFields_thenKeepSeparators() {
+        byte[] payload = "[{\"key\":\"значение\"},null]".getBytes(StandardCharsets.UTF_8);
+        HttpLogEvent event = HttpLogEvent.builder()
+                .type(HttpLogEvent.Type.REQUEST)
+                .uri("/upload")
+                .method("POST")
+                .headers(new HttpHeaders())
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .payload(payload)
+                .payloadLength(payload.length)
+                .parts(List.of(new HttpLogEvent.Part("field", null, null, 1, "v")))
+                .build();
+
+        //test
+        String line = serializer.serialize(event);
+
+        //check
+        assertEquals("{\"requestInfo\":{\"direction\":\"inbound\",\"uri\":\"/upload\",\"httpMethod\":\"POST\","
+                + "\"headers\":{},\"payload\":[{\"key\":\"значение\"},null],"
+                + "\"parts\":[{\"name\":\"field\",\"size\":1,\"value\":\"v\"}]}}", line);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenMultilineJsonPayload_thenKeepLogLineSingle() {
+        HttpLogEvent event = responseEvent(MediaType.APPLICATION_JSON_VALUE, "{\n  \"key\" : \"value\"\n}");
+
+        //test
+        String line = serializer.serialize(event);
+
+        //check
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"application/json\"]},"
+                + "\"payload\":{\"key\":\"value\"}}}", line);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenInvalidJsonPayload_thenWriteAsText() {
+        HttpLogEvent event = responseEvent(MediaType.APPLICATION_JSON_VALUE, "{\"key\":");
+
+        //test
+        String line = serializer.serialize(event);
+
+        //check
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"application/json\"]},"
+                + "\"payload\":\"Content-Type is application/json. Content: {\\\"key\\\":\"}}", line);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenTwoJsonValues_thenWriteAsText() {
+        HttpLogEvent event = responseEvent(MediaType.APPLICATION_JSON_VALUE, "{} {}");
+
+        //test
+        String line = serializer.serialize(event);
+
+        //check
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"application/json\"]},"
+                + "\"payload\":\"Content-Type is application/json. Content: {} {}\"}}", line);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenRedactionFields_thenMaskValues() {
+        HttpLogEventSerializer redactingSerializer = new HttpLogEventSerializer(new JsonFactory(), 40,
+                new LoggingMetrics(), JsonRedactor.compile(List.of("phone"), "****"));
+
+        //test
+        String line = redactingSerializer.serialize(
+                responseEvent(MediaType.APPLICATION_JSON_VALUE, "{\"phone\":\"+998901234567\",\"id\":1}"));
+
+        //check
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"application/json\"]},"
+                + "\"payload\":{\"phone\":\"****\",\"id\":1}}}", line);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenJsonWithoutContentTypeOrAsText_thenMaskValues() {
+        HttpLogEventSerializer redactingSerializer = new HttpLogEventSerializer(new JsonFactory(), 40,
+                new LoggingMetrics(), JsonRedactor.compile(List.of("phone"), "****"));
+        String body = "{\"phone\":\"+998901234567\",\"id\":1}";
+        HttpLogEvent withoutContentType = responseEvent(MediaType.TEXT_PLAIN_VALUE, body).toBuilder()
+                .headers(new HttpHeaders())
+                .contentType(null)
+                .build();
+
+        //test
+        String untyped = redactingSerializer.serialize(withoutContentType);
+        String text = redactingSerializer.serialize(responseEvent(MediaType.TEXT_PLAIN_VALUE, body));
+        String truncated = redactingSerializer.serialize(
+                responseEvent(MediaType.TEXT_PLAIN_VALUE, "{\"id\":1,\"phone\":\"+998901234567\",\"note\":\"long\"}"));
+
+        //check
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"payload\":\"Content-Type is not specified: "
+                + "{\\\"phone\\\":\\\"****\\\",\\\"id\\\":1}\"}}", untyped);
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"text/plain\"]},"
+                + "\"payload\":\"Content-Type is text/plain. Content: "
+                + "{\\\"phone\\\":\\\"****\\\",\\\"id\\\":1}\"}}", text);
+        assertFalse(truncated.contains("+998901234567"));
+        assertTrue(truncated.contains("Truncated content: {\\\"id\\\":1,\\\"phone\\\":\\\"****\\\""));
+    }
+
+    @Test
+    @SneakyThrows
+    void whenJsonWithParametersOrSuffix_thenEmbedAsIs() {
+        //test
+        String withCharset = serializer.serialize(responseEvent("application/json;charset=UTF-8", "{\"id\":1}"));
+        String problem = serializer.serialize(responseEvent("application/problem+json", "{\"status\":400}"));
+
+        //check
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"application/json;charset=UTF-8\"]},"
+                + "\"payload\":{\"id\":1}}}", withCharset);
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"application/problem+json\"]},"
+                + "\"payload\":{\"status\":400}}}", problem);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenBinaryPayloadCounted_thenWriteContentTypeOnly() {
+        HttpLogEvent event = responseEvent(MediaType.IMAGE_PNG_VALUE, "").toBuilder()
+                .payloadLength(1_000_000)
+                .build();
+
+        //test
+        String line = serializer.serialize(event);
+
+        //check
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"image/png\"]},"
+                + "\"payload\":\"Content-Type is image/png\"}}", line);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenMultiByteCharAtLimit_thenCutBeforeIt() {
+        // 39 ASCII bytes, then a 2-byte char crossing the 40 byte limit
+        String payload = "a".repeat(39) + "ж" + "b".repeat(10);
+
+        //test
+        String line = serializer.serialize(responseEvent(MediaType.TEXT_PLAIN_VALUE, payload));
+
+        //check
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"text/plain\"]},"
+                + "\"payload\":\"Payload length=51 but maxPayload=40. Please, increase logging.maxPayload. "
+                + "Truncated content: " + "a".repeat(39) + "\"}}", line);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenCaptureEndsInsideMultiByteChar_thenDropIt() {
+        // 51 bytes: a 40 byte capture ends on the first byte of the twentieth 2-byte char
+        byte[] body = ("a" + "ж".repeat(25)).getBytes(StandardCharsets.UTF_8);
+        PayloadCapture capture = new PayloadCapture(40);
+        capture.write(body, 0, body.length);
+        HttpLogEvent event = responseEvent(MediaType.TEXT_PLAIN_VALUE, "").toBuilder()
+                .payload(capture.getContentInputStream().readAllBytes())
+                .payloadLength(capture.getTotalLength())
+                .build();
+
+        //test
+        String line = serializer.serialize(event);
+
+        //check
+        assertEquals("{\"responseInfo\":{\"direction\":\"inbound\",\"uri\":\"/complete\",\"httpStatus\":200,\"duration\":0,"
+                + "\"headers\":{\"Content-Type\":[\"text/plain\"]},"
+                + "\"payload\":\"Payload length=51 but maxPayload=40. Please, increase logging.maxPayload. "
+                + "Truncated content: a" + "ж".repeat(19) + "\"}}", line);
+    }
+
+    private static HttpLogEvent responseEvent(String contentType, String payload) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_TYPE, contentType);
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return HttpLogEvent.builder()
+                .type(HttpLogEvent.Type.RESPONSE)
+                .uri("/complete")
+                .status(200)
+                .headers(headers)
+                .contentType(contentType)
+                .payload(bytes)
+                .payloadLength(bytes.length)
+                .build();
+    }
+}
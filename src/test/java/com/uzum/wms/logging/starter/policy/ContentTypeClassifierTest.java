@@ -0,0 +1,41 @@
+package com.uzum.wms.logging.starter.policy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContentTypeClassifierTest {
+    private final ContentTypeClassifier classifier = new ContentTypeClassifier();
+
+    @Test
+    void jsonTest() {
+        //check
+        assertEquals(ContentTypeClassifier.Category.JSON, classifier.classify("application/json"));
+        assertEquals(ContentTypeClassifier.Category.JSON, classifier.classify("application/json;charset=UTF-8"));
+        assertEquals(ContentTypeClassifier.Category.JSON, classifier.classify("application/problem+json"));
+        assertEquals(ContentTypeClassifier.Category.JSON, classifier.classify("application/vnd.api+json"));
+    }
+
+    @Test
+    void binaryAndStreamingTest() {
+        //check
+        assertEquals(ContentTypeClassifier.Category.BINARY, classifier.classify("application/pdf"));
+        assertEquals(ContentTypeClassifier.Category.BINARY, classifier.classify("image/png"));
+        assertEquals(ContentTypeClassifier.Category.BINARY, classifier.classify("application/octet-stream"));
+        assertEquals(ContentTypeClassifier.Category.BINARY,
+                classifier.classify("multipart/form-data; boundary=----abc"));
+        assertEquals(ContentTypeClassifier.Category.BINARY,
+                classifier.classify("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        assertEquals(ContentTypeClassifier.Category.STREAMING, classifier.classify("text/event-stream"));
+        assertEquals(ContentTypeClassifier.Category.STREAMING, classifier.classify("application/x-ndjson"));
+    }
+
+    @Test
+    void textTest() {
+        //check
+        assertEquals(ContentTypeClassifier.Category.TEXT, classifier.classify("text/plain;charset=UTF-8"));
+        assertEquals(ContentTypeClassifier.Category.TEXT, classifier.classify("application/xml"));
+        assertEquals(ContentTypeClassifier.Category.TEXT, classifier.classify(null));
+        assertEquals(ContentTypeClassifier.Category.TEXT, classifier.classify("not a media type"));
+    }
+}
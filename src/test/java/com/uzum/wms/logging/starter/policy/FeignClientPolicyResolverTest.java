@@ -0,0 +1,78 @@
+package com.uzum.wms.logging.starter.policy;
+
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeignClientPolicyResolverTest {
+
+    @Test
+    void defaultPolicyTest() {
+        FeignClientPolicyResolver resolver = new FeignClientPolicyResolver(new LoggingProperties.Feign(), 5000);
+
+        //test
+        FeignClientPolicy policy = resolver.resolve("CatalogClient#export(long)");
+
+        //check
+        assertTrue(policy.isEnabled());
+        assertTrue(policy.isHeaders());
+        assertEquals(5000, policy.getRequestMaxPayload());
+        assertEquals(5000, policy.getResponseMaxPayload());
+        assertTrue(policy.isBodySampled(new Object()));
+    }
+
+    @Test
+    void methodEntryInheritsFromClientEntryTest() {
+        LoggingProperties.Feign feign = new LoggingProperties.Feign();
+        feign.getClients().put("CatalogClient", client(null, null, 100, false, 0.0));
+        feign.getClients().put("CatalogClient#export", client(null, null, 20_000, null, null));
+        feign.getClients().put("StockClient", client(false, null, null, null, null));
+        FeignClientPolicyResolver resolver = new FeignClientPolicyResolver(feign, 5000);
+
+        //test
+        FeignClientPolicy export = resolver.resolve("CatalogClient#export(long)");
+        FeignClientPolicy find = resolver.resolve("CatalogClient#find(String,int)");
+        FeignClientPolicy stock = resolver.resolve("StockClient#reserve(Reservation)");
+        FeignClientPolicy other = resolver.resolve("PartnerClient#send(Order)");
+
+        //check
+        assertEquals(20_000, export.getResponseMaxPayload());
+        assertFalse(export.isHeaders());
+        assertFalse(export.isBodySampled(new Object()));
+        assertEquals(100, find.getResponseMaxPayload());
+        assertEquals(5000, find.getRequestMaxPayload());
+        assertFalse(stock.isEnabled());
+        assertTrue(other.isEnabled());
+        assertEquals(5000, other.getResponseMaxPayload());
+        assertSame(export, resolver.resolve("CatalogClient#export(long)"));
+    }
+
+    @Test
+    void sampleRateTest() {
+        FeignClientPolicy policy = new FeignClientPolicy(true, 5000, 5000, true, 0.25);
+
+        //test
+        long sampled = IntStream.range(0, 10_000).mapToObj(i -> new Object()).filter(policy::isBodySampled).count();
+
+        //check
+        assertTrue(sampled > 2000 && sampled < 3000, "sampled " + sampled);
+    }
+
+    private static LoggingProperties.FeignClient client(Boolean enabled, Integer requestMaxPayload,
+                                                        Integer responseMaxPayload, Boolean headers,
+                                                        Double sampleRate) {
+        LoggingProperties.FeignClient client = new LoggingProperties.FeignClient();
+        client.setEnabled(enabled);
+        client.setRequestMaxPayload(requestMaxPayload);
+        client.setResponseMaxPayload(responseMaxPayload);
+        client.setHeaders(headers);
+        client.setSampleRate(sampleRate);
+        return client;
+    }
+}
@@ -0,0 +1,90 @@
+package com.uzum.wms.logging.starter.policy;
+
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeaderPolicyTest {
+
+    @Test
+    void defaultPolicyTest() {
+        //test
+        HeaderPolicy policy = HeaderPolicy.DEFAULT;
+
+        //check
+        assertEquals(HeaderPolicy.Action.DROP, policy.resolve("Authorization"));
+        assertEquals(HeaderPolicy.Action.DROP, policy.resolve("AUTHORIZATION"));
+        assertEquals(HeaderPolicy.Action.LOG, policy.resolve("Content-Type"));
+    }
+
+    @Test
+    void allowMaskDenyTest() {
+        LoggingProperties.Headers headers = new LoggingProperties.Headers();
+        headers.setAllow(List.of("Content-Type", "X-Request-Id", "Cookie"));
+        headers.setMask(List.of("x-api-key"));
+        headers.setDeny(List.of("cookie"));
+        headers.setMaskKeepLast(3);
+
+        //test
+        HeaderPolicy policy = HeaderPolicy.compile(headers);
+
+        //check
+        assertEquals(HeaderPolicy.Action.LOG, policy.resolve("content-type"));
+        assertEquals(HeaderPolicy.Action.MASK, policy.resolve("X-Api-Key"));
+        assertEquals(HeaderPolicy.Action.DROP, policy.resolve("Cookie"));
+        assertEquals(HeaderPolicy.Action.DROP, policy.resolve("Accept"));
+        assertEquals("****xyz", policy.mask("secret-xyz"));
+        assertEquals("****", policy.mask("xyz"));
+    }
+
+    @Test
+    void whenDenyOverridden_thenAuthorizationStillDroppedTest() {
+        LoggingProperties.Headers headers = new LoggingProperties.Headers();
+        headers.setDeny(List.of("Cookie"));
+
+        //test
+        HeaderPolicy policy = HeaderPolicy.compile(headers);
+
+        //check
+        assertEquals(HeaderPolicy.Action.DROP, policy.resolve("Authorization"));
+        assertEquals(HeaderPolicy.Action.DROP, policy.resolve("cookie"));
+        assertEquals(HeaderPolicy.Action.LOG, policy.resolve("Accept"));
+    }
+
+    @Test
+    void whenAuthorizationMasked_thenMaskItTest() {
+        LoggingProperties.Headers headers = new LoggingProperties.Headers();
+        headers.setMask(List.of("authorization"));
+
+        //test
+        HeaderPolicy policy = HeaderPolicy.compile(headers);
+
+        //check
+        assertEquals(HeaderPolicy.Action.MASK, policy.resolve("Authorization"));
+    }
+
+    @Test
+    void whenFilter_thenCopyOnlyLoggedHeadersMasked() {
+        LoggingProperties.Headers headers = new LoggingProperties.Headers();
+        headers.setMask(List.of("x-api-key"));
+        HeaderPolicy policy = HeaderPolicy.compile(headers);
+        Map<String, List<String>> source = Map.of(
+                HttpHeaders.CONTENT_TYPE, List.of(MediaType.APPLICATION_JSON_VALUE),
+                "X-API-KEY", List.of("key-123456"),
+                HttpHeaders.AUTHORIZATION, List.of("Bearer token"));
+
+        //test
+        HttpHeaders filtered = policy.filter(source.keySet().iterator(), name -> source.get(name).iterator());
+
+        //check
+        assertEquals(2, filtered.size());
+        assertEquals(List.of(MediaType.APPLICATION_JSON_VALUE), filtered.get(HttpHeaders.CONTENT_TYPE));
+        assertEquals(List.of("****3456"), filtered.get("X-API-KEY"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.uzum.wms.logging.starter.policy;
+
+import com.uzum.wms.logging.starter.config.LoggingProperties;
+import com.uzum.wms.logging.starter.sampling.SamplingDecision;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutePolicyResolverTest {
+
+    @Test
+    void defaultPolicyTest() {
+        RoutePolicyResolver resolver = new RoutePolicyResolver(new LoggingProperties(), 5000);
+
+        //test
+        RoutePolicy policy = resolver.resolve("GET", "/orders/1");
+
+        //check
+        assertTrue(policy.isBodyCapture());
+        assertTrue(policy.isHeaders());
+        assertEquals(5000, policy.getRequestMaxPayload());
+        assertEquals(5000, policy.getResponseMaxPayload());
+    }
+
+    @Test
+    void firstMatchingRouteWinsTest() {
+        LoggingProperties loggingProperties = new LoggingProperties();
+        loggingProperties.setRoutes(List.of(
+                route("/stock-sync/**", Set.of(), false, null),
+                route("/orders/**", Set.of("post"), true, 20_000),
+                route("/**", Set.of(), true, 100)));
+        RoutePolicyResolver resolver = new RoutePolicyResolver(loggingProperties, 5000);
+
+        //test
+        RoutePolicy stockSync = resolver.resolve("PUT", "/stock-sync/items");
+        RoutePolicy postOrder = resolver.resolve("POST", "/orders/1");
+        RoutePolicy getOrder = resolver.resolve("GET", "/orders/1");
+
+        //check
+        assertFalse(stockSync.isBodyCapture());
+        assertEquals(20_000, postOrder.getRequestMaxPayload());
+        assertEquals(5000, postOrder.getResponseMaxPayload());
+        assertEquals(100, getOrder.getRequestMaxPayload());
+        assertSame(postOrder, resolver.resolve("POST", "/orders/1"));
+        assertNotSame(stockSync.getBodySampler(), postOrder.getBodySampler());
+    }
+
+    @Test
+    void nonStandardMethodTest() {
+        LoggingProperties loggingProperties = new LoggingProperties();
+        loggingProperties.setRoutes(List.of(route("/dav/**", Set.of("propfind"), false, null)));
+        RoutePolicyResolver resolver = new RoutePolicyResolver(loggingProperties, 5000);
+        for (int i = 0; i < 100; i++) {
+            resolver.resolve("JUNK" + i, "/dav/items");
+        }
+
+        //test
+        RoutePolicy propfind = resolver.resolve("PROPFIND", "/dav/items");
+        RoutePolicy get = resolver.resolve("GET", "/dav/items");
+
+        //check
+        assertFalse(propfind.isBodyCapture());
+        assertTrue(get.isBodyCapture());
+        assertSame(get, resolver.resolve("GET", "/dav/items"));
+    }
+
+    @Test
+    void routeSamplingOverrideTest() {
+        LoggingProperties loggingProperties = new LoggingProperties();
+        LoggingProperties.Route route = route("/orders/**", Set.of(), true, null);
+        route.setSampling(new LoggingProperties.Sampling());
+        loggingProperties.setRoutes(List.of(route));
+        RoutePolicyResolver resolver = new RoutePolicyResolver(loggingProperties, 5000);
+
+        //check
+        assertNotSame(resolver.resolve("GET", "/orders/1").getBodySampler(),
+                resolver.resolve("GET", "/complete").getBodySampler());
+    }
+
+    @Test
+    void rateLimitPerRouteTest() {
+        LoggingProperties loggingProperties = new LoggingProperties();
+        loggingProperties.getSampling().setPolicy(LoggingProperties.SamplingPolicy.RATE_LIMIT);
+        loggingProperties.getSampling().setPermitsPerSecond(1);
+        loggingProperties.setRoutes(List.of(route("/orders/{id}", Set.of(), true, null)));
+        RoutePolicyResolver resolver = new RoutePolicyResolver(loggingProperties, 5000);
+
+        //test
+        SamplingDecision first = sample(resolver, "/orders/1");
+        SamplingDecision otherId = sample(resolver, "/orders/2");
+        SamplingDecision otherRoute = sample(resolver, "/complete");
+
+        //check
+        assertEquals(SamplingDecision.CAPTURE, first);
+        assertEquals(SamplingDecision.SKIP, otherId);
+        assertEquals(SamplingDecision.CAPTURE, otherRoute);
+    }
+
+    private static SamplingDecision sample(RoutePolicyResolver resolver, String path) {
+        return resolver.resolve("GET", path).getBodySampler().sample();
+    }
+
+    private static LoggingProperties.Route route(String path, Set<String> methods, boolean bodyCapture,
+                                                 Integer requestMaxPayload) {
+        LoggingProperties.Route route = new LoggingProperties.Route();
+        route.setPath(path);
+        route.setMethods(methods);
+        route.setBodyCapture(bodyCapture);
+        route.setRequestMaxPayload(requestMaxPayload);
+        return route;
+    }
+}
@@ -0,0 +1,88 @@
+package com.uzum.wms.logging.starter.redaction;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class JsonRedactorTest {
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private final JsonRedactor redactor = JsonRedactor.compile(
+            List.of("phone", "cardNumber", "customer.passport"), "****");
+
+    @Test
+    @SneakyThrows
+    void redactFieldsAtAnyDepthAndByPathTest() {
+        String json = "{\"phone\":\"+998901234567\",\"customer\":{\"passport\":{\"series\":\"AA\"},\"name\":\"Ali\","
+                + "\"phone\":998901234567},\"payments\":[{\"cardNumber\":\"8600123412341234\"},{\"amount\":10}],"
+                + "\"passport\":\"kept\"}";
+
+        //test
+        String redacted = copy(redactor, json);
+
+        //check
+        assertEquals("{\"phone\":\"****\",\"customer\":{\"passport\":\"****\",\"name\":\"Ali\",\"phone\":\"****\"},"
+                + "\"payments\":[{\"cardNumber\":\"****\"},{\"amount\":10}],\"passport\":\"kept\"}", redacted);
+    }
+
+    @Test
+    @SneakyThrows
+    void pathInsideArrayTest() {
+        JsonRedactor arrayRedactor = JsonRedactor.compile(List.of("items.sku"), "****");
+
+        //test
+        String redacted = copy(arrayRedactor, "{\"items\":[{\"sku\":\"A\"},{\"sku\":\"B\",\"qty\":1}]}");
+
+        //check
+        assertEquals("{\"items\":[{\"sku\":\"****\"},{\"sku\":\"****\",\"qty\":1}]}", redacted);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenPayloadCut_thenRedactPrefixTest() {
+        byte[] cut = "{\"name\":\"Ali\",\"phone\":\"+99890123\",\"address\":{\"city\":\"Tash".getBytes(StandardCharsets.UTF_8);
+
+        //test
+        String redacted = redactor.redactPrefix(jsonFactory, cut);
+
+        //check
+        assertEquals("{\"name\":\"Ali\",\"phone\":\"****\",\"address\":{\"city\"", redacted);
+        assertFalse(redacted.contains("+99890123"));
+    }
+
+    @Test
+    void noFieldsTest() {
+        //check
+        assertFalse(JsonRedactor.NONE.isEnabled());
+    }
+
+    @Test
+    void formFieldTest() {
+        JsonRedactor jsonRedactor = JsonRedactor.compile(List.of("phone", "passport", "customer.address"), "****");
+
+        //check
+        assertEquals("****", jsonRedactor.redactField("phone", "+998901234567"));
+        assertEquals("****", jsonRedactor.redactField("passport", "AA1234567"));
+        assertEquals("Tashkent", jsonRedactor.redactField("customer", "Tashkent"));
+        assertEquals("fragile", jsonRedactor.redactField("comment", "fragile"));
+    }
+
+    @SneakyThrows
+    private String copy(JsonRedactor jsonRedactor, String json) {
+        StringWriter writer = new StringWriter();
+        try (JsonParser parser = jsonFactory.createParser(json);
+             JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            jsonRedactor.copy(parser, generator);
+        }
+        return writer.toString();
+    }
+}